@@ -0,0 +1,152 @@
+package com.weather.api.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.weather.api.cache.ForecastBody;
+import com.weather.api.cache.ForecastEntry;
+import com.weather.api.controller.ForecastController;
+import com.weather.api.exception.ResourceNotFoundException;
+import com.weather.api.model.AggregationWindow;
+import com.weather.api.model.ForecastData;
+import com.weather.api.model.ForecastView;
+import com.weather.api.model.Units;
+import com.weather.api.service.contract.ForecastService;
+import com.weather.api.service.contract.RequestPriority;
+import com.weather.api.shared.exception.ExceptionControllerAdvice;
+import com.weather.api.shared.exception.ResourceException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Вартість відповіді {@code GET /api/v1/forecasts/{cityName}} через Spring MVC: прогноз з кешу
+ * проти 404 для невідомого міста (з підказками), а також 404 з винятком, що заповнює стек, — як
+ * було до переходу на винятки без стеку. Запуск:
+ * {@code mvn -Pbenchmark verify -Djmh.args="ErrorPathBenchmark -prof gc"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Duser.timezone=UTC")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ErrorPathBenchmark {
+
+  private static final String FOUND = "Kyiv";
+  private static final String TRACED = "Traced";
+
+  private MockMvc mvc;
+
+  @Setup
+  public void setUp() throws Exception {
+    ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    ForecastData data;
+    try (InputStream in = getClass().getResourceAsStream("/fixtures/forecast-typical.json")) {
+      data = new ForecastTreeMapper().map(objectMapper.readTree(in));
+    }
+    byte[] json = objectMapper.writeValueAsBytes(data.forecasts());
+    Instant now = Instant.now();
+    ForecastEntry entry = new ForecastEntry(data.forecasts(), data.periods(), json, json,
+        "\"typical\"", now, now, now.plus(Duration.ofHours(1)), false, 0);
+
+    mvc = MockMvcBuilders
+        .standaloneSetup(new ForecastController(new FixedForecastService(entry), null))
+        .setControllerAdvice(
+            new ExceptionControllerAdvice(objectMapper, Duration.ofSeconds(10)))
+        .build();
+  }
+
+  @Benchmark
+  public MockHttpServletResponse found() throws Exception {
+    return get(FOUND);
+  }
+
+  @Benchmark
+  public MockHttpServletResponse notFound() throws Exception {
+    return get("Kyivv");
+  }
+
+  @Benchmark
+  public MockHttpServletResponse notFoundWithStackTrace() throws Exception {
+    return get(TRACED);
+  }
+
+  private MockHttpServletResponse get(String city) throws Exception {
+    return mvc.perform(MockMvcRequestBuilders.get("/api/v1/forecasts/{cityName}", city))
+        .andReturn()
+        .getResponse();
+  }
+
+  /**
+   * Той самий 404, але зі стеком викликів
+   */
+  @ResponseStatus(HttpStatus.NOT_FOUND)
+  private static final class TracedNotFoundException extends ResourceException {
+
+    TracedNotFoundException(String message, Object details) {
+      super(message);
+      setDetails(details);
+    }
+  }
+
+  private record FixedForecastService(ForecastEntry entry) implements ForecastService {
+
+    private static final Map<String, List<String>> SUGGESTIONS =
+        Map.of("suggestions", List.of("Kyiv,UA", "Kyiv,US"));
+
+    @Override
+    public ForecastEntry searchByCityName(String cityName) {
+      return searchByCityName(cityName, RequestPriority.INTERACTIVE);
+    }
+
+    @Override
+    public ForecastEntry searchByCityName(String cityName, RequestPriority priority) {
+      if (cityName.equals(FOUND)) {
+        return entry;
+      }
+      if (cityName.equals(TRACED)) {
+        throw new TracedNotFoundException("Місто не знайдено: " + cityName, SUGGESTIONS);
+      }
+      throw new ResourceNotFoundException("Місто не знайдено: " + cityName, SUGGESTIONS);
+    }
+
+    @Override
+    public ForecastEntry searchByCoordinates(double lat, double lon) {
+      return entry;
+    }
+
+    @Override
+    public ForecastBody render(ForecastEntry entry, ForecastView view) {
+      return entry.body();
+    }
+
+    @Override
+    public void writeWindows(ForecastEntry entry, AggregationWindow window, Units units,
+        OutputStream out) {
+    }
+
+    @Override
+    public void refresh(String cityKey) {
+    }
+  }
+}
@@ -0,0 +1,84 @@
+package com.weather.api.service.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.weather.api.model.Forecast;
+import com.weather.api.model.ForecastData;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Етапи обробки відповіді {@code /data/2.5/forecast} на записаних відповідях OpenWeatherMap:
+ * розбір JSON, групування/усереднення по днях і серіалізація {@code List<Forecast>} у відповідь.
+ * Запуск: {@code mvn -Pbenchmark verify}, результат — {@code target/jmh-result.json}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Duser.timezone=UTC")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ForecastPipelineBenchmark {
+
+  @Param({"small", "typical", "worst"})
+  private String payload;
+
+  private ObjectMapper objectMapper;
+  private ForecastStreamParser streamParser;
+  private ForecastTreeMapper treeMapper;
+  private byte[] body;
+  private JsonNode tree;
+  private List<Forecast> forecasts;
+
+  @Setup
+  public void setUp() throws IOException {
+    objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    streamParser = new ForecastStreamParser(objectMapper.getFactory());
+    treeMapper = new ForecastTreeMapper();
+    try (InputStream in = getClass().getResourceAsStream("/fixtures/forecast-" + payload + ".json")) {
+      body = in.readAllBytes();
+    }
+    tree = objectMapper.readTree(body);
+    forecasts = treeMapper.map(tree).forecasts();
+  }
+
+  @Benchmark
+  public JsonNode parseTree() throws IOException {
+    return objectMapper.readTree(body);
+  }
+
+  @Benchmark
+  public ForecastData aggregateTree() {
+    return treeMapper.map(tree);
+  }
+
+  @Benchmark
+  public ForecastData parseAndAggregateTree() throws IOException {
+    return treeMapper.map(objectMapper.readTree(body));
+  }
+
+  @Benchmark
+  public ForecastData parseAndAggregateStreaming() throws IOException {
+    return streamParser.parse(new ByteArrayInputStream(body));
+  }
+
+  @Benchmark
+  public byte[] serialize() throws IOException {
+    return objectMapper.writeValueAsBytes(forecasts);
+  }
+}
@@ -0,0 +1,79 @@
+package com.weather.api.loadtest;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import org.springframework.boot.convert.DurationStyle;
+
+/**
+ * Розподіл затримки відповіді заглушки OpenWeatherMap. Формат специфікації:
+ * <ul>
+ *   <li>{@code none} — без затримки;</li>
+ *   <li>{@code fixed:50ms} — стала затримка;</li>
+ *   <li>{@code uniform:20ms:200ms} — рівномірно в межах;</li>
+ *   <li>{@code lognormal:80ms:600ms} — логнормальний розподіл з медіаною та p99, типовий для
+ *   затримок мережевих сервісів з «довгим хвостом».</li>
+ * </ul>
+ */
+final class LatencyModel {
+
+  // Квантиль стандартного нормального розподілу для p99
+  private static final double Z_99 = 2.326348;
+
+  private final String spec;
+  private final Kind kind;
+  private final double a;
+  private final double b;
+
+  private LatencyModel(String spec, Kind kind, double a, double b) {
+    this.spec = spec;
+    this.kind = kind;
+    this.a = a;
+    this.b = b;
+  }
+
+  static LatencyModel parse(String spec) {
+    String[] parts = spec.trim().split(":");
+    return switch (parts[0]) {
+      case "none" -> new LatencyModel(spec, Kind.NONE, 0, 0);
+      case "fixed" -> new LatencyModel(spec, Kind.FIXED, nanos(parts, 1), 0);
+      case "uniform" -> new LatencyModel(spec, Kind.UNIFORM, nanos(parts, 1), nanos(parts, 2));
+      case "lognormal" -> {
+        double mu = Math.log(nanos(parts, 1));
+        double sigma = (Math.log(nanos(parts, 2)) - mu) / Z_99;
+        yield new LatencyModel(spec, Kind.LOGNORMAL, mu, Math.max(0, sigma));
+      }
+      default -> throw new IllegalArgumentException("Unknown latency model: " + spec);
+    };
+  }
+
+  /**
+   * @return випадкова затримка в наносекундах
+   */
+  long sample() {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    return switch (kind) {
+      case NONE -> 0;
+      case FIXED -> (long) a;
+      case UNIFORM -> (long) (a + random.nextDouble() * (b - a));
+      case LOGNORMAL -> (long) Math.exp(a + b * random.nextGaussian());
+    };
+  }
+
+  @Override
+  public String toString() {
+    return spec;
+  }
+
+  private static double nanos(String[] parts, int index) {
+    if (parts.length <= index) {
+      throw new IllegalArgumentException("Missing duration in latency model: "
+          + String.join(":", parts));
+    }
+    Duration duration = DurationStyle.detectAndParse(parts[index]);
+    return duration.toNanos();
+  }
+
+  private enum Kind {
+    NONE, FIXED, UNIFORM, LOGNORMAL
+  }
+}
@@ -0,0 +1,167 @@
+package com.weather.api.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Генератор навантаження на {@code /api/v1/<endpoint>/{cityName}} ({@code forecasts} або
+ * {@code dashboard}) з відкритою моделлю: запити відправляються з фіксованою частотою незалежно
+ * від того, чи відповів сервіс на попередні.
+ * <p>
+ * Затримка рахується від запланованого, а не фактичного моменту відправки, тож повільний сервіс
+ * не «розріджує» навантаження і хвіст розподілу не занижується (coordinated omission). Міста
+ * обираються за законом Ципфа ({@link ZipfSampler}) з {@code cities} синтетичних назв; частка
+ * {@code unknownRatio} з них — неіснуючі, для яких заглушка повертає {@code 404}. Запити,
+ * заплановані до кінця розігріву, не враховуються
+ */
+final class LoadGenerator {
+
+  /**
+   * Статус для запитів, що завершилися помилкою з'єднання або тайм-аутом
+   */
+  static final int NO_RESPONSE = 0;
+
+  private final URI target;
+  private final String endpoint;
+  private final HttpClient client;
+  private final String[] cities;
+  private final ZipfSampler zipf;
+  private final Duration timeout;
+
+  LoadGenerator(URI target, String endpoint, int cities, double exponent, double unknownRatio,
+      Duration timeout) {
+    this.target = target;
+    this.endpoint = endpoint;
+    this.client = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(Duration.ofSeconds(2))
+        .executor(Executors.newVirtualThreadPerTaskExecutor())
+        .build();
+    this.cities = names(cities, unknownRatio);
+    this.zipf = new ZipfSampler(cities, exponent);
+    this.timeout = timeout;
+  }
+
+  /**
+   * Відправляє {@code rate} запитів на секунду протягом {@code warmup + duration} та чекає на
+   * відповіді, але не довше тайм-ауту запиту
+   *
+   * @return результати запитів, запланованих після розігріву
+   */
+  Result run(int rate, Duration warmup, Duration duration) throws InterruptedException {
+    long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+    long warmupNanos = warmup.toNanos();
+    long total = (warmupNanos + duration.toNanos()) / interval;
+    long[] latencies = new long[(int) Math.min(Integer.MAX_VALUE - 8, total)];
+    AtomicInteger recorded = new AtomicInteger();
+    Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+
+    long start = System.nanoTime();
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (long i = 0; i < total; i++) {
+        long intended = start + i * interval;
+        long delay = intended - System.nanoTime();
+        if (delay > 0) {
+          LockSupport.parkNanos(delay);
+        }
+        boolean measured = i * interval >= warmupNanos;
+        HttpRequest request = request(cities[zipf.next()]);
+        executor.execute(() -> {
+          int status = send(request);
+          if (measured) {
+            latencies[recorded.getAndIncrement()] = System.nanoTime() - intended;
+            statuses.computeIfAbsent(status, key -> new LongAdder()).increment();
+          }
+        });
+      }
+      executor.shutdown();
+      if (!executor.awaitTermination(timeout.toNanos() + interval, TimeUnit.NANOSECONDS)) {
+        executor.shutdownNow();
+      }
+    }
+    long elapsed = System.nanoTime() - start - warmupNanos;
+
+    int count = recorded.get();
+    long[] sorted = Arrays.copyOf(latencies, count);
+    Arrays.sort(sorted);
+    Map<Integer, Long> byStatus = new TreeMap<>();
+    statuses.forEach((status, adder) -> byStatus.put(status, adder.sum()));
+    return new Result(count, elapsed, sorted, byStatus);
+  }
+
+  private HttpRequest request(String city) {
+    return HttpRequest.newBuilder(target.resolve(
+            "/api/v1/" + endpoint + "/" + URLEncoder.encode(city, StandardCharsets.UTF_8)))
+        .timeout(timeout)
+        .header("Accept-Encoding", "gzip")
+        .GET()
+        .build();
+  }
+
+  private int send(HttpRequest request) {
+    try {
+      return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    } catch (IOException e) {
+      return NO_RESPONSE;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return NO_RESPONSE;
+    }
+  }
+
+  /**
+   * Назви міст за рангом популярності: {@code City-0001}, ... Неіснуючі міста розкидані по
+   * рангах випадково, але однаково для кожного запуску
+   */
+  private static String[] names(int count, double unknownRatio) {
+    String[] names = new String[count];
+    int width = String.valueOf(count).length();
+    Random random = new Random(count);
+    for (int i = 0; i < count; i++) {
+      String prefix = random.nextDouble() < unknownRatio ? "Nowhere-" : "City-";
+      names[i] = prefix + String.format("%0" + width + "d", i + 1);
+    }
+    return names;
+  }
+
+  /**
+   * @param requests   кількість виміряних запитів
+   * @param nanos      тривалість вимірювання
+   * @param latencies  відсортовані затримки в наносекундах
+   * @param statuses   кількість відповідей за статусом, {@link #NO_RESPONSE} — без відповіді
+   */
+  record Result(int requests, long nanos, long[] latencies, Map<Integer, Long> statuses) {
+
+    double throughput() {
+      return requests * (double) TimeUnit.SECONDS.toNanos(1) / Math.max(1, nanos);
+    }
+
+    /**
+     * @return затримка квантиля {@code q} в мілісекундах
+     */
+    double percentile(double q) {
+      if (latencies.length == 0) {
+        return 0;
+      }
+      int index = (int) Math.ceil(q * latencies.length) - 1;
+      return latencies[Math.max(0, Math.min(index, latencies.length - 1))] / 1e6;
+    }
+  }
+}
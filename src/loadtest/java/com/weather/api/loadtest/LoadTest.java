@@ -0,0 +1,162 @@
+package com.weather.api.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.weather.api.Main;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Наскрізний навантажувальний тест: заглушка OpenWeatherMap ({@link UpstreamStub}), сервіс та
+ * генератор навантаження ({@link LoadGenerator}) в одному процесі.
+ * <p>
+ * Параметри — {@code --назва=значення}:
+ * <ul>
+ *   <li>{@code rate} (100), {@code warmup} (10s), {@code duration} (30s), {@code timeout} (10s)
+ *   — частота запитів за секунду та тривалості;</li>
+ *   <li>{@code endpoint} (forecasts) — {@code forecasts} або {@code dashboard};</li>
+ *   <li>{@code cities} (1000), {@code zipf} (1.0), {@code unknown} (0.02) — кількість міст,
+ *   показник закону Ципфа та частка неіснуючих міст;</li>
+ *   <li>{@code latency} (lognormal:80ms:600ms), {@code errors} (0), {@code rate-limited} (0),
+ *   {@code payloads} (small,typical,worst) — поведінка заглушки, див. {@link LatencyModel};</li>
+ *   <li>{@code app.<властивість>} — властивість сервісу, напр.
+ *   {@code --app.api.cache.ttl=1m};</li>
+ *   <li>{@code target} — адреса вже запущеного сервісу замість вбудованого, тоді заглушка
+ *   слухає порт {@code stub-port} (9099), і сервіс має бути налаштований на неї;</li>
+ *   <li>{@code stub-only} — лише запустити заглушку на {@code stub-port} до зупинки процесу;</li>
+ *   <li>{@code output} (target/loadtest-result.json) — файл з результатом.</li>
+ * </ul>
+ */
+public final class LoadTest {
+
+  private static final double[] PERCENTILES = {0.5, 0.9, 0.99, 0.999, 1};
+  private static final String[] PERCENTILE_NAMES = {"p50", "p90", "p99", "p999", "max"};
+
+  private LoadTest() {
+  }
+
+  public static void main(String[] args) throws Exception {
+    Options options = new Options(args);
+    boolean external = options.has("target");
+    boolean stubOnly = options.getBoolean("stub-only");
+    int stubPort = external || stubOnly ? options.getInt("stub-port", 9099) : 0;
+
+    try (UpstreamStub stub = startStub(options, stubPort, "lognormal:80ms:600ms")) {
+      if (stubOnly) {
+        Thread.currentThread().join();
+      }
+
+      ConfigurableApplicationContext app = external ? null : startApp(stub.port(), options);
+      try {
+        URI target = URI.create(external ? options.get("target", null)
+            : "http://127.0.0.1:" + ((WebServerApplicationContext) app).getWebServer().getPort());
+        run(target, options, stub);
+      } finally {
+        if (app != null) {
+          SpringApplication.exit(app);
+        }
+      }
+    }
+  }
+
+  static UpstreamStub startStub(Options options, int port, String defaultLatency)
+      throws IOException {
+    LatencyModel latency = LatencyModel.parse(options.get("latency", defaultLatency));
+    UpstreamStub stub = new UpstreamStub(port,
+        Arrays.asList(options.get("payloads", "small,typical,worst").split(",")),
+        latency,
+        options.getDouble("errors", 0),
+        options.getDouble("rate-limited", 0));
+    System.out.printf("OpenWeatherMap stub on http://127.0.0.1:%d (latency %s)%n",
+        stub.port(), latency);
+    return stub;
+  }
+
+  /**
+   * Аргументи сервісу для роботи із заглушкою: її адреса, без знімка кешу та з параметрами
+   * {@code --app.*}
+   */
+  static List<String> appArgs(int stubPort, Options options) {
+    List<String> args = new ArrayList<>(List.of(
+        "--api.base-url=http://127.0.0.1:" + stubPort,
+        "--api.key=loadtest",
+        "--api.origin=http://localhost",
+        "--api.snapshot.enabled=false",
+        "--logging.level.root=WARN"));
+    args.addAll(options.appArgs());
+    return args;
+  }
+
+  static void writeReport(Options options, String defaultPath, Map<String, Object> report)
+      throws IOException {
+    Path output = Path.of(options.get("output", defaultPath));
+    if (output.toAbsolutePath().getParent() != null) {
+      Files.createDirectories(output.toAbsolutePath().getParent());
+    }
+    new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+        .writeValue(output.toFile(), report);
+    System.out.printf("Result written to %s%n", output);
+  }
+
+  private static ConfigurableApplicationContext startApp(int stubPort, Options options) {
+    List<String> args = new ArrayList<>(appArgs(stubPort, options));
+    args.add(0, "--server.port=0");
+    return new SpringApplicationBuilder(Main.class)
+        .logStartupInfo(false)
+        .run(args.toArray(String[]::new));
+  }
+
+  private static void run(URI target, Options options, UpstreamStub stub) throws Exception {
+    int rate = options.getInt("rate", 100);
+    Duration warmup = options.getDuration("warmup", "10s");
+    Duration duration = options.getDuration("duration", "30s");
+    LoadGenerator generator = new LoadGenerator(target,
+        options.get("endpoint", "forecasts"),
+        options.getInt("cities", 1000),
+        options.getDouble("zipf", 1.0),
+        options.getDouble("unknown", 0.02),
+        options.getDuration("timeout", "10s"));
+
+    System.out.printf("Driving %s at %d req/s: warmup %s, measuring %s%n",
+        target, rate, warmup, duration);
+    LoadGenerator.Result result = generator.run(rate, warmup, duration);
+    // Виклики під час розігріву теж враховуються: без них не видно, скільки кеш заощадив
+    Map<Integer, Long> upstream = stub.calls();
+    long upstreamCalls = upstream.values().stream().mapToLong(Long::longValue).sum();
+
+    Map<String, Object> report = new LinkedHashMap<>();
+    report.put("options", options.asMap());
+    report.put("requests", result.requests());
+    report.put("throughput", round(result.throughput()));
+    Map<String, Double> latencies = new LinkedHashMap<>();
+    for (int i = 0; i < PERCENTILES.length; i++) {
+      latencies.put(PERCENTILE_NAMES[i], round(result.percentile(PERCENTILES[i])));
+    }
+    report.put("latencyMs", latencies);
+    report.put("statuses", result.statuses());
+    report.put("upstreamCalls", upstreamCalls);
+    report.put("upstreamStatuses", upstream);
+
+    System.out.printf("Requests:   %d (%.1f req/s)%n", result.requests(), result.throughput());
+    System.out.printf("Latency ms: %s%n", latencies);
+    System.out.printf("Statuses:   %s%n", result.statuses());
+    System.out.printf("Upstream:   %d calls %s%n", upstreamCalls, upstream);
+    writeReport(options, "target/loadtest-result.json", report);
+  }
+
+  static double round(double value) {
+    return Math.round(value * 100) / 100.0;
+  }
+}
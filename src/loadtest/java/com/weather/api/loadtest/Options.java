@@ -0,0 +1,73 @@
+package com.weather.api.loadtest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.springframework.boot.convert.DurationStyle;
+
+/**
+ * Параметри командного рядка {@code --назва=значення} ({@code --назва} — те саме, що
+ * {@code --назва=true}). Параметри {@code --app.<властивість>=значення} збираються окремо як
+ * аргументи сервісу {@code --<властивість>=значення}
+ */
+final class Options {
+
+  private static final String APP_PREFIX = "app.";
+
+  private final Map<String, String> values = new TreeMap<>();
+  private final List<String> appArgs = new ArrayList<>();
+
+  Options(String[] args) {
+    for (String arg : args) {
+      if (!arg.startsWith("--")) {
+        continue;
+      }
+      int eq = arg.indexOf('=');
+      String name = eq > 0 ? arg.substring(2, eq) : arg.substring(2);
+      String value = eq > 0 ? arg.substring(eq + 1) : "true";
+      if (name.startsWith(APP_PREFIX)) {
+        appArgs.add("--" + name.substring(APP_PREFIX.length()) + "=" + value);
+      } else {
+        values.put(name, value);
+      }
+    }
+  }
+
+  boolean has(String name) {
+    return values.containsKey(name);
+  }
+
+  String get(String name, String defaultValue) {
+    return values.getOrDefault(name, defaultValue);
+  }
+
+  int getInt(String name, int defaultValue) {
+    return has(name) ? Integer.parseInt(values.get(name)) : defaultValue;
+  }
+
+  double getDouble(String name, double defaultValue) {
+    return has(name) ? Double.parseDouble(values.get(name)) : defaultValue;
+  }
+
+  boolean getBoolean(String name) {
+    return Boolean.parseBoolean(values.get(name));
+  }
+
+  Duration getDuration(String name, String defaultValue) {
+    return DurationStyle.detectAndParse(get(name, defaultValue));
+  }
+
+  /**
+   * @return аргументи сервісу з параметрів {@code --app.*}
+   */
+  List<String> appArgs() {
+    return Collections.unmodifiableList(appArgs);
+  }
+
+  Map<String, String> asMap() {
+    return Collections.unmodifiableMap(values);
+  }
+}
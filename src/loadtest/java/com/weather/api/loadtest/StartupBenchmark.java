@@ -0,0 +1,200 @@
+package com.weather.api.loadtest;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Час від запуску процесу сервісу до першої успішної відповіді
+ * {@code /api/v1/forecasts/{cityName}} та пам'ять процесу (RSS) в цей момент, для кожного режиму
+ * запуску, що зібраний у {@code target}:
+ * <ul>
+ *   <li>{@code jar} — звичайний fat jar;</li>
+ *   <li>{@code aot} — jar з {@code target/app} з класами Spring AOT ({@code mvn -Paot package});
+ *   </li>
+ *   <li>{@code aot-cds} — те саме з архівом CDS {@code target/app/application.jsa};</li>
+ *   <li>{@code native} — GraalVM native image ({@code mvn -Pnative native:compile}).</li>
+ * </ul>
+ * Кожен режим запускається {@code runs} разів із заглушкою OpenWeatherMap (за замовчуванням без
+ * затримки).
+ * Параметри: {@code --modes=jar,aot}, {@code --runs=5}, {@code --city=London},
+ * {@code --timeout=120s}, {@code --output}, {@code --app.*} — як у {@link LoadTest}. RSS
+ * читається з {@code /proc}, тож доступний лише в Linux
+ */
+public final class StartupBenchmark {
+
+  private static final List<String> MODES = List.of("jar", "aot", "aot-cds", "native");
+  private static final Path TARGET = Path.of("target");
+  private static final Path APP = TARGET.resolve("app");
+
+  private StartupBenchmark() {
+  }
+
+  public static void main(String[] args) throws Exception {
+    Options options = new Options(args);
+    int runs = options.getInt("runs", 5);
+    Duration timeout = options.getDuration("timeout", "120s");
+    List<String> modes = options.has("modes")
+        ? Arrays.asList(options.get("modes", "").split(",")) : MODES;
+
+    Map<String, Object> report = new LinkedHashMap<>();
+    report.put("options", options.asMap());
+    try (UpstreamStub stub = LoadTest.startStub(options, 0, "none")) {
+      HttpClient client = HttpClient.newBuilder()
+          .connectTimeout(Duration.ofMillis(200))
+          .build();
+      for (String mode : modes) {
+        Optional<Launch> launch = launch(mode);
+        if (launch.isEmpty()) {
+          System.out.printf("%-8s skipped: not built%n", mode);
+          continue;
+        }
+
+        long[] millis = new long[runs];
+        long[] rss = new long[runs];
+        for (int i = 0; i < runs; i++) {
+          long[] sample = measure(launch.get(), stub.port(), options, client, timeout);
+          millis[i] = sample[0];
+          rss[i] = sample[1];
+        }
+        Arrays.sort(millis);
+        Arrays.sort(rss);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("readyMsMedian", millis[runs / 2]);
+        result.put("readyMsMin", millis[0]);
+        result.put("readyMsMax", millis[runs - 1]);
+        long rssMb = rss[runs / 2] < 0 ? -1 : rss[runs / 2] / 1024;
+        result.put("rssMbMedian", rssMb);
+        report.put(mode, result);
+        System.out.printf("%-8s ready %5d ms (min %d, max %d), RSS %d MB%n", mode,
+            millis[runs / 2], millis[0], millis[runs - 1], rssMb);
+      }
+    }
+    LoadTest.writeReport(options, "target/startup-result.json", report);
+  }
+
+  /**
+   * Один запуск: чекає першої відповіді {@code 200}, знімає RSS та зупиняє процес
+   *
+   * @return час до готовності в мілісекундах та RSS у кілобайтах ({@code -1}, якщо невідомо)
+   */
+  private static long[] measure(Launch launch, int stubPort, Options options,
+      HttpClient client, Duration timeout) throws IOException, InterruptedException {
+    int port = freePort();
+    List<String> args = new ArrayList<>(launch.command());
+    args.add("--server.port=" + port);
+    args.addAll(LoadTest.appArgs(stubPort, options));
+    HttpRequest request = HttpRequest.newBuilder(URI.create(
+            "http://127.0.0.1:" + port + "/api/v1/forecasts/" + options.get("city", "London")))
+        .timeout(Duration.ofSeconds(5))
+        .build();
+
+    long start = System.nanoTime();
+    Process process = new ProcessBuilder(args)
+        .directory(launch.directory().toFile())
+        .redirectErrorStream(true)
+        .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+        .start();
+    try {
+      long deadline = start + timeout.toNanos();
+      while (!ready(client, request)) {
+        if (!process.isAlive()) {
+          throw new IllegalStateException("Service exited with " + process.exitValue()
+              + ": " + String.join(" ", launch.command()));
+        }
+        if (System.nanoTime() > deadline) {
+          throw new IllegalStateException("Service not ready in " + timeout);
+        }
+        TimeUnit.MILLISECONDS.sleep(5);
+      }
+      long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+      return new long[]{millis, rss(process.pid())};
+    } finally {
+      process.destroy();
+      if (!process.waitFor(30, TimeUnit.SECONDS)) {
+        process.destroyForcibly().waitFor();
+      }
+    }
+  }
+
+  private static boolean ready(HttpClient client, HttpRequest request)
+      throws InterruptedException {
+    try {
+      return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+    } catch (IOException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Команда запуску режиму або нічого, якщо його артефакти не зібрані. Режими з {@code target/app}
+   * запускаються з цього каталогу: архів CDS записує шляхи jar такими, як при навчальному запуску
+   */
+  private static Optional<Launch> launch(String mode) throws IOException {
+    String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+    Optional<String> appJar = find(APP, "-app.jar").map(jar -> jar.getFileName().toString());
+    boolean archived = Files.exists(APP.resolve("application.jsa"));
+    return switch (mode) {
+      case "jar" -> find(TARGET, ".jar")
+          .map(jar -> new Launch(List.of(java, "-jar", jar.toString()), Path.of(".")));
+      case "aot" -> appJar.map(jar -> new Launch(
+          List.of(java, "-Dspring.aot.enabled=true", "-jar", jar), APP));
+      case "aot-cds" -> appJar.filter(jar -> archived).map(jar -> new Launch(
+          List.of(java, "-Dspring.aot.enabled=true", "-XX:SharedArchiveFile=application.jsa",
+              "-Xlog:cds=error", "-jar", jar), APP));
+      case "native" -> Optional.of(TARGET.resolve("weather-api"))
+          .filter(Files::isExecutable)
+          .map(binary -> new Launch(List.of(binary.toString()), Path.of(".")));
+      default -> throw new IllegalArgumentException("Unknown mode: " + mode);
+    };
+  }
+
+  private static Optional<Path> find(Path directory, String suffix) throws IOException {
+    if (!Files.isDirectory(directory)) {
+      return Optional.empty();
+    }
+    try (Stream<Path> files = Files.list(directory)) {
+      return files
+          .filter(file -> file.getFileName().toString().endsWith(suffix))
+          .findFirst();
+    }
+  }
+
+  private static long rss(long pid) {
+    try {
+      for (String line : Files.readAllLines(Path.of("/proc", Long.toString(pid), "status"))) {
+        if (line.startsWith("VmRSS:")) {
+          return Long.parseLong(line.replaceAll("\\D", ""));
+        }
+      }
+    } catch (IOException | NumberFormatException e) {
+      // не Linux
+    }
+    return -1;
+  }
+
+  private static int freePort() throws IOException {
+    try (ServerSocket socket = new ServerSocket(0)) {
+      return socket.getLocalPort();
+    }
+  }
+
+  private record Launch(List<String> command, Path directory) {
+
+  }
+}
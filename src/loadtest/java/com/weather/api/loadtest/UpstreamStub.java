@@ -0,0 +1,165 @@
+package com.weather.api.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Вбудована заглушка {@code /data/2.5/forecast}, {@code /data/2.5/weather} та
+ * {@code /data/2.5/air_pollution} OpenWeatherMap для навантажувальних тестів.
+ * <p>
+ * Віддає записані відповіді з {@code /fixtures} на класпасі: для прогнозу кожне місто (параметр
+ * {@code q}, {@code id} або координати) завжди отримує ту саму відповідь з набору
+ * {@code forecast-<назва>.json}, а поточна погода та якість повітря — одну відповідь для всіх.
+ * Перед відповіддю чекає випадкову затримку з {@link LatencyModel}. Міста з назвою, що
+ * починається з {@value #UNKNOWN_PREFIX}, отримують {@code 404}; з імовірністю
+ * {@code rateLimitRate} відповідь — {@code 429} з {@code Retry-After: 1}, а з імовірністю
+ * {@code errorRate} — {@code 500}. Кожна відповідь рахується за статусом, див. {@link #calls()}
+ */
+final class UpstreamStub implements AutoCloseable {
+
+  static final String UNKNOWN_PREFIX = "nowhere";
+
+  private static final byte[] NOT_FOUND =
+      "{\"cod\":\"404\",\"message\":\"city not found\"}".getBytes(StandardCharsets.UTF_8);
+
+  private final List<byte[]> payloads = new ArrayList<>();
+  private final byte[] weather = fixture("weather");
+  private final byte[] airPollution = fixture("air_pollution");
+  private final LatencyModel latency;
+  private final double errorRate;
+  private final double rateLimitRate;
+  private final Map<Integer, LongAdder> calls = new ConcurrentHashMap<>();
+  private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+  private final HttpServer server;
+
+  UpstreamStub(int port, List<String> payloadNames, LatencyModel latency, double errorRate,
+      double rateLimitRate) throws IOException {
+    for (String name : payloadNames) {
+      payloads.add(fixture("forecast-" + name));
+    }
+    this.latency = latency;
+    this.errorRate = errorRate;
+    this.rateLimitRate = rateLimitRate;
+    this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 1024);
+    server.createContext("/data/2.5/forecast", exchange -> handle(exchange,
+        city -> payloads.get(Math.floorMod(city.hashCode(), payloads.size()))));
+    server.createContext("/data/2.5/weather", exchange -> handle(exchange, city -> weather));
+    server.createContext("/data/2.5/air_pollution",
+        exchange -> handle(exchange, city -> airPollution));
+    server.setExecutor(executor);
+    server.start();
+  }
+
+  int port() {
+    return server.getAddress().getPort();
+  }
+
+  /**
+   * @return кількість відповідей заглушки за статусом
+   */
+  Map<Integer, Long> calls() {
+    Map<Integer, Long> snapshot = new TreeMap<>();
+    calls.forEach((status, count) -> snapshot.put(status, count.sum()));
+    return snapshot;
+  }
+
+  @Override
+  public void close() {
+    server.stop(0);
+    executor.shutdownNow();
+  }
+
+  private void handle(HttpExchange exchange, Function<String, byte[]> payload)
+      throws IOException {
+    try (exchange) {
+      String city = city(exchange.getRequestURI());
+      long delay = latency.sample();
+      if (delay > 0) {
+        TimeUnit.NANOSECONDS.sleep(delay);
+      }
+
+      ThreadLocalRandom random = ThreadLocalRandom.current();
+      if (city.startsWith(UNKNOWN_PREFIX)) {
+        respond(exchange, 404, NOT_FOUND);
+      } else if (random.nextDouble() < rateLimitRate) {
+        exchange.getResponseHeaders().set("Retry-After", "1");
+        respond(exchange, 429, null);
+      } else if (random.nextDouble() < errorRate) {
+        respond(exchange, 500, null);
+      } else {
+        respond(exchange, 200, payload.apply(city));
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void respond(HttpExchange exchange, int status, byte[] body) throws IOException {
+    calls.computeIfAbsent(status, key -> new LongAdder()).increment();
+    if (body == null) {
+      exchange.sendResponseHeaders(status, -1);
+      return;
+    }
+    exchange.getResponseHeaders().set("Content-Type", "application/json");
+    exchange.sendResponseHeaders(status, body.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(body);
+    }
+  }
+
+  /**
+   * Місто запиту: {@code q}, {@code id} або пара координат
+   */
+  private static String city(URI uri) {
+    Map<String, String> params = new TreeMap<>();
+    String query = uri.getRawQuery();
+    if (query != null) {
+      for (String pair : query.split("&")) {
+        int eq = pair.indexOf('=');
+        if (eq > 0) {
+          params.put(pair.substring(0, eq),
+              URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+        }
+      }
+    }
+    if (params.containsKey("q")) {
+      return params.get("q").toLowerCase(Locale.ROOT);
+    }
+    if (params.containsKey("id")) {
+      return params.get("id");
+    }
+    return params.getOrDefault("lat", "") + "," + params.getOrDefault("lon", "");
+  }
+
+  private static byte[] fixture(String name) {
+    String path = "/fixtures/" + name + ".json";
+    try (InputStream in = UpstreamStub.class.getResourceAsStream(path)) {
+      if (in == null) {
+        throw new IllegalArgumentException("Unknown payload: " + name);
+      }
+      return in.readAllBytes();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -0,0 +1,32 @@
+package com.weather.api.loadtest;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Вибір рангу {@code 0..n-1} за законом Ципфа: ймовірність рангу {@code k} пропорційна
+ * {@code 1 / (k + 1)^s}. При {@code s ≈ 1} кілька найпопулярніших міст отримують більшість
+ * запитів, а довгий хвіст рідкісних міст — решту, як у реальному трафіку
+ */
+final class ZipfSampler {
+
+  private final double[] cumulative;
+
+  ZipfSampler(int n, double exponent) {
+    cumulative = new double[n];
+    double sum = 0;
+    for (int k = 0; k < n; k++) {
+      sum += 1 / Math.pow(k + 1, exponent);
+      cumulative[k] = sum;
+    }
+    for (int k = 0; k < n; k++) {
+      cumulative[k] /= sum;
+    }
+  }
+
+  int next() {
+    int index = Arrays.binarySearch(cumulative, ThreadLocalRandom.current().nextDouble());
+    int rank = index >= 0 ? index : -index - 1;
+    return Math.min(rank, cumulative.length - 1);
+  }
+}
@@ -2,8 +2,19 @@ package com.weather.api;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.data.redis.RedisAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.redis.RedisReactiveAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.redis.RedisRepositoriesAutoConfiguration;
 
-@SpringBootApplication
+/**
+ * Redis потрібен лише спільному кешу {@code api.cache.l2.type=redis}, тож його автоконфігурація
+ * підключається там, див. {@link com.weather.api.config.SharedCacheConfig}
+ */
+@SpringBootApplication(exclude = {
+    RedisAutoConfiguration.class,
+    RedisReactiveAutoConfiguration.class,
+    RedisRepositoriesAutoConfiguration.class
+})
 public class Main {
 
   public static void main(String[] args) {
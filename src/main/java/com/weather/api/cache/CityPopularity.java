@@ -0,0 +1,36 @@
+package com.weather.api.cache;
+
+import com.weather.api.shared.concurrent.CountMinSketch;
+import java.time.Duration;
+import java.time.Instant;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+/**
+ * Частота запитів по містах для фонового оновлення популярних міст. Лічильники періодично
+ * діляться навпіл, тому оцінка відображає недавню популярність
+ */
+@Component
+public class CityPopularity {
+
+  private final CountMinSketch sketch;
+
+  public CityPopularity(
+      TaskScheduler taskScheduler,
+      @Value("${api.refresh.sketch-width}") int sketchWidth,
+      @Value("${api.refresh.decay-interval}") Duration decayInterval
+  ) {
+    this.sketch = new CountMinSketch(sketchWidth);
+    taskScheduler.scheduleAtFixedRate(
+        sketch::decay, Instant.now().plus(decayInterval), decayInterval);
+  }
+
+  public void record(String cityKey) {
+    sketch.increment(cityKey);
+  }
+
+  public int estimate(String cityKey) {
+    return sketch.estimate(cityKey);
+  }
+}
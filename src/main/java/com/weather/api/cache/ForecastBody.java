@@ -0,0 +1,12 @@
+package com.weather.api.cache;
+
+/**
+ * Готове тіло відповіді з прогнозом
+ *
+ * @param body тіло відповіді
+ * @param gzip {@code body}, стиснуте gzip
+ * @param etag сильний ETag цього тіла
+ */
+public record ForecastBody(byte[] body, byte[] gzip, String etag) {
+
+}
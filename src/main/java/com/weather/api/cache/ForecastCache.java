@@ -0,0 +1,449 @@
+package com.weather.api.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.weather.api.exception.BadRequestException;
+import com.weather.api.exception.ServiceUnavailableException;
+import com.weather.api.metrics.ForecastMetrics;
+import com.weather.api.model.Forecast;
+import com.weather.api.model.ForecastData;
+import com.weather.api.shared.concurrent.SingleFlight;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+/**
+ * Обмежений за розміром кеш агрегованих прогнозів (W-TinyLFU витіснення від Caffeine).
+ * <p>
+ * Запис вважається свіжим протягом {@code ttl}. Після цього ще {@code stale-ttl} він віддається
+ * клієнту як є, а оновлення виконується у фоні — так користувач не чекає на зовнішнє API. Далі
+ * запис оновлюється синхронно, але ще {@code fallback-ttl} залишається «останнім відомим»
+ * прогнозом, який віддається з позначкою {@link ForecastEntry#stale()}, коли зовнішнє API
+ * недоступне.
+ * <p>
+ * Одночасні завантаження одного ключа (промахи та фонові оновлення) об'єднуються в одне через
+ * {@link SingleFlight}, результат (або помилку) отримують усі виклики. Для кожного завантаженого
+ * прогнозу один раз готуються тіла відповіді (JSON та gzip) і ETag, а {@code lastModified}
+ * змінюється лише разом зі вмістом.
+ * <p>
+ * Лічильники hit/miss/eviction публікуються як метрики {@code cache.*{cache=forecasts}}, віддачі
+ * застарілих даних — як {@code forecast.cache.stale}, а резервні відповіді — як
+ * {@code forecast.cache.fallback}.
+ * <p>
+ * Кожен завантажений запис дописується в {@link ForecastSnapshotStore}, а при створенні кешу
+ * (до готовності застосунку) записи, що ще не вийшли за межі зберігання, відновлюються з нього.
+ * Термін зберігання рахується від {@link ForecastEntry#fetchedAt()}, тому відновлений запис не
+ * живе довше, ніж жив би без перезапуску.
+ * <p>
+ * Для кількох вузлів цей кеш — перший рівень перед спільним {@link SharedForecasts}: промах
+ * спершу шукається у спільному кеші, а завантаження виконує лише вузол з орендою ключа — інші
+ * чекають на його результат. Новий запис потрапляє у спільний кеш, а інші вузли видаляють свою
+ * старішу версію за повідомленням.
+ */
+@Slf4j
+@Component
+public class ForecastCache implements DisposableBean {
+
+  private static final String CACHE_NAME = "forecasts";
+  private static final String VARIANTS_CACHE_NAME = "forecast-variants";
+  private static final String CITY_ID_PREFIX = "id:";
+  private static final char KEY_SEPARATOR = ':';
+
+  private final Cache<String, ForecastEntry> cache;
+  private final Cache<String, ForecastBody> variants;
+  private final SingleFlight<String, ForecastEntry> loads;
+  private final ObjectMapper objectMapper;
+  private final ForecastSnapshotStore snapshots;
+  private final SharedForecasts shared;
+  private final ForecastMetrics metrics;
+  private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+  private final Executor executor;
+  private final Duration ttl;
+  private final Duration staleTtl;
+  private final Duration retention;
+  private final Counter staleHits;
+  private final Counter fallbackHits;
+
+  public ForecastCache(
+      @Qualifier("applicationTaskExecutor") Executor executor,
+      MeterRegistry meterRegistry,
+      ObjectMapper objectMapper,
+      ForecastSnapshotStore snapshots,
+      SharedForecasts shared,
+      ForecastMetrics metrics,
+      TaskScheduler taskScheduler,
+      @Value("${api.cache.max-size}") long maxSize,
+      @Value("${api.cache.variant-max-size}") long variantMaxSize,
+      @Value("${api.cache.ttl}") Duration ttl,
+      @Value("${api.cache.stale-ttl}") Duration staleTtl,
+      @Value("${api.cache.fallback-ttl}") Duration fallbackTtl,
+      @Value("${api.upstream.coalesce-timeout}") Duration coalesceTimeout,
+      @Value("${api.snapshot.compact-interval}") Duration compactInterval
+  ) {
+    this.executor = executor;
+    this.objectMapper = objectMapper;
+    this.snapshots = snapshots;
+    this.shared = shared;
+    this.metrics = metrics;
+    this.loads = new SingleFlight<>(coalesceTimeout);
+    this.ttl = ttl;
+    this.staleTtl = staleTtl;
+    this.retention = ttl.plus(staleTtl).plus(fallbackTtl);
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfter(retention(retention))
+        .recordStats()
+        .build();
+    this.staleHits = Counter.builder("forecast.cache.stale")
+        .description("Forecasts served from cache while a background refresh was running")
+        .register(meterRegistry);
+    this.fallbackHits = Counter.builder("forecast.cache.fallback")
+        .description("Last-known-good forecasts served because the upstream API was unavailable")
+        .register(meterRegistry);
+    this.variants = Caffeine.newBuilder()
+        .maximumSize(variantMaxSize)
+        .recordStats()
+        .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    CaffeineCacheMetrics.monitor(meterRegistry, variants, VARIANTS_CACHE_NAME);
+
+    cache.putAll(snapshots.load(retention, ttl));
+    snapshots.compact(cache.asMap());
+    taskScheduler.scheduleWithFixedDelay(() -> snapshots.compact(cache.asMap()),
+        Instant.now().plus(compactInterval), compactInterval);
+    shared.onInvalidation(this::invalidate);
+  }
+
+  @Override
+  public void destroy() {
+    snapshots.compact(cache.asMap());
+  }
+
+  /**
+   * Нормалізує назву міста до ключа кешу: без зайвих пробілів і регістру
+   *
+   * @param cityName назва міста з запиту
+   * @return ключ кешу
+   */
+  public static String key(String cityName) {
+    return cityName.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * Перевіряє назву міста з запиту до пошуку в довіднику. Двокрапка в ключах зарезервована для
+   * службових ключів ({@code id:...}, {@link GeoCell}): назва на кшталт {@code geo:50.45,30.52}
+   * інакше оминула б прив'язку до сітки та потрапила б у кеш і статистику популярності як
+   * окремий ключ
+   *
+   * @param cityName назва міста з запиту
+   * @throws BadRequestException якщо назва містить двокрапку
+   */
+  public static void checkCityName(String cityName) {
+    if (cityName.indexOf(KEY_SEPARATOR) >= 0) {
+      throw new BadRequestException("Некоректна назва міста: " + cityName);
+    }
+  }
+
+  /**
+   * @param cityId ідентифікатор міста з довідника
+   * @return ключ кешу міста, що запитується за ідентифікатором, напр. {@code id:703448}
+   */
+  public static String cityIdKey(long cityId) {
+    return CITY_ID_PREFIX + cityId;
+  }
+
+  /**
+   * Розбирає ключ, створений {@link #cityIdKey(long)}
+   *
+   * @param key ключ кешу
+   * @return ідентифікатор міста або порожнє значення для інших ключів
+   */
+  public static Optional<String> cityId(String key) {
+    return key.startsWith(CITY_ID_PREFIX)
+        ? Optional.of(key.substring(CITY_ID_PREFIX.length()))
+        : Optional.empty();
+  }
+
+  /**
+   * Повертає прогноз з кешу. За відсутності запису завантажує його синхронно, а для застарілого
+   * запису віддає наявні дані та запускає фонове оновлення. Якщо запис старший за
+   * {@code ttl + stale-ttl}, а зовнішнє API недоступне, віддає його з позначкою
+   * {@link ForecastEntry#stale()}
+   *
+   * @param key    нормалізований ключ, див. {@link #key(String)}
+   * @param loader завантаження прогнозу із зовнішнього API
+   * @return агрегований прогноз з часом отримання
+   */
+  public ForecastEntry get(String key, Loader loader) {
+    ForecastEntry entry = cache.getIfPresent(key);
+    if (entry == null) {
+      entry = shared.get(key, ttl);
+      if (entry != null) {
+        cache.put(key, entry);
+      }
+    }
+    if (entry == null) {
+      return load(key, loader, false);
+    }
+
+    Instant now = Instant.now();
+    if (!entry.isStale(ttl, now)) {
+      return entry;
+    }
+
+    if (!entry.isStale(ttl.plus(staleTtl), now)) {
+      staleHits.increment();
+      refreshAsync(key, loader);
+      return entry;
+    }
+
+    try {
+      return load(key, loader, false);
+    } catch (ServiceUnavailableException e) {
+      fallbackHits.increment();
+      log.warn("Serving last known forecast for '{}' fetched at {}", key, entry.fetchedAt());
+      return entry.asStale();
+    }
+  }
+
+  /**
+   * Похідне представлення запису, напр. в інших одиницях або форматі. Тіло, його gzip та ETag
+   * готуються один раз для кожного вмісту ({@link ForecastEntry#etag()}) і зберігаються в окремому
+   * обмеженому кеші
+   *
+   * @param entry   запис з основного кешу
+   * @param variant назва представлення, частина ETag
+   * @param render  серіалізація прогнозу в представлення
+   * @return тіло відповіді
+   */
+  public ForecastBody variant(
+      ForecastEntry entry, String variant, Function<List<Forecast>, byte[]> render) {
+    return variants.get(entry.etag() + "/" + variant, key -> {
+      byte[] body = render.apply(entry.forecasts());
+      return new ForecastBody(body, compress(body), entry.etag() + "-" + variant);
+    });
+  }
+
+  /**
+   * Фонове оновлення запису незалежно від його віку, напр. для популярних міст до закінчення
+   * {@code ttl}. Повторний виклик, поки оновлення ще виконується, ігнорується
+   *
+   * @param key    нормалізований ключ, див. {@link #key(String)}
+   * @param loader завантаження прогнозу із зовнішнього API
+   */
+  public void refresh(String key, Loader loader) {
+    refreshAsync(key, loader);
+  }
+
+  /**
+   * @return знімок ключів, наявних у кеші
+   */
+  public Set<String> keys() {
+    return Set.copyOf(cache.asMap().keySet());
+  }
+
+  /**
+   * Запис без завантаження і без впливу на статистику кешу
+   *
+   * @param key нормалізований ключ
+   * @return запис або {@code null}
+   */
+  public ForecastEntry peek(String key) {
+    return cache.asMap().get(key);
+  }
+
+  private ForecastEntry load(String key, Loader loader, boolean background) {
+    return loads.execute(key, () -> {
+      ForecastEntry previous = cache.getIfPresent(key);
+      long version = previous != null ? previous.version() : 0;
+
+      // Інший вузол міг уже оновити запис
+      ForecastEntry newer = shared.get(key, ttl);
+      if (newer != null && newer.version() > version && !newer.isStale(ttl, Instant.now())) {
+        cache.put(key, newer);
+        return newer;
+      }
+
+      boolean leased = shared.tryLease(key);
+      if (!leased) {
+        if (background && previous != null) {
+          return previous; // Оновлює інший вузол, його версія прийде повідомленням
+        }
+        newer = shared.awaitNewer(key, version, ttl);
+        if (newer != null) {
+          cache.put(key, newer);
+          return newer;
+        }
+        log.debug("Lease holder did not refresh '{}' in time, loading it here", key);
+        leased = shared.tryLease(key);
+      }
+
+      try {
+        ForecastData data = loader.load(key, background);
+        Instant now = Instant.now();
+        Timer.Sample serialize = metrics.start();
+        byte[] json = serialize(data.forecasts());
+        String etag = etag(json);
+        metrics.stop(serialize, ForecastMetrics.STAGE_SERIALIZE);
+        byte[] gzip = compress(json);
+
+        Instant lastModified = previous != null && previous.etag().equals(etag)
+            ? previous.lastModified()
+            : now;
+        ForecastEntry entry = shared.put(key, new ForecastEntry(data.forecasts(), data.periods(),
+            json, gzip, etag, now, lastModified, now.plus(ttl), false, 0), retention);
+        cache.put(key, entry);
+        snapshots.append(key, entry);
+        return entry;
+      } finally {
+        if (leased) {
+          shared.releaseLease(key);
+        }
+      }
+    });
+  }
+
+  /**
+   * Інший вузол записав нову версію ключа у спільний кеш: старіша локальна версія видаляється, і
+   * наступний запит візьме нову зі спільного кешу
+   */
+  private void invalidate(String key, long version) {
+    ForecastEntry entry = cache.asMap().get(key);
+    if (entry != null && entry.version() < version) {
+      cache.asMap().remove(key, entry);
+    }
+  }
+
+  private void refreshAsync(String key, Loader loader) {
+    if (!refreshing.add(key)) {
+      return; // Оновлення вже виконується
+    }
+
+    try {
+      executor.execute(() -> {
+        try {
+          load(key, loader, true);
+        } catch (Exception e) {
+          log.warn("Background refresh failed for '{}': {}", key, e.getMessage());
+        } finally {
+          refreshing.remove(key);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      refreshing.remove(key);
+      log.warn("Background refresh rejected for '{}'", key);
+    }
+  }
+
+  /**
+   * Запис видаляється через {@code retention} після отримання даних, а не після вставки в кеш
+   */
+  private static Expiry<String, ForecastEntry> retention(Duration retention) {
+    return new Expiry<>() {
+      @Override
+      public long expireAfterCreate(String key, ForecastEntry entry, long currentTime) {
+        Duration age = Duration.between(entry.fetchedAt(), Instant.now());
+        return Math.max(0, retention.minus(age).toNanos());
+      }
+
+      @Override
+      public long expireAfterUpdate(
+          String key, ForecastEntry entry, long currentTime, long currentDuration) {
+        return expireAfterCreate(key, entry, currentTime);
+      }
+
+      @Override
+      public long expireAfterRead(
+          String key, ForecastEntry entry, long currentTime, long currentDuration) {
+        return currentDuration;
+      }
+    };
+  }
+
+  private byte[] serialize(List<Forecast> forecasts) {
+    try {
+      return objectMapper.writeValueAsBytes(forecasts);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Cannot serialize forecast", e);
+    }
+  }
+
+  private byte[] compress(byte[] body) {
+    Timer.Sample sample = metrics.start();
+    byte[] gzip = gzip(body);
+    metrics.stop(sample, ForecastMetrics.STAGE_COMPRESS);
+    return gzip;
+  }
+
+  /**
+   * Стискання виконується один раз на завантаження, тому з максимальним рівнем
+   */
+  private static byte[] gzip(byte[] json) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4);
+    try (GZIPOutputStream gzip = new GZIPOutputStream(out) {
+      {
+        def.setLevel(Deflater.BEST_COMPRESSION);
+      }
+    }) {
+      gzip.write(json);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return out.toByteArray();
+  }
+
+  /**
+   * ETag — перші 128 біт SHA-256 від JSON представлення прогнозу
+   */
+  private static String etag(byte[] json) {
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+      return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, 16));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("Cannot compute forecast ETag", e);
+    }
+  }
+
+  /**
+   * Завантаження прогнозу із зовнішнього API
+   */
+  @FunctionalInterface
+  public interface Loader {
+
+    /**
+     * @param key        нормалізований ключ
+     * @param background {@code true}, якщо це фонове оновлення, на яке не чекає жоден запит
+     * @return агрегований прогноз та вихідні періоди
+     */
+    ForecastData load(String key, boolean background);
+  }
+}
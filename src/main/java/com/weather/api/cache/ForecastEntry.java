@@ -0,0 +1,64 @@
+package com.weather.api.cache;
+
+import com.weather.api.model.Forecast;
+import com.weather.api.model.ForecastPoint;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Запис кешу — агрегований прогноз разом з часом його отримання від OpenWeatherMap
+ *
+ * @param forecasts    агрегований прогноз по днях
+ * @param periods      вихідні 3-годинні періоди, з яких агрегуються інші вікна
+ * @param json         прогноз, серіалізований у JSON один раз при завантаженні
+ * @param gzip         {@code json}, стиснутий gzip
+ * @param etag         сильний ETag, обчислений зі вмісту прогнозу
+ * @param fetchedAt    момент, коли дані були отримані від зовнішнього API
+ * @param lastModified момент, коли вміст прогнозу востаннє змінився
+ * @param expiresAt    до якого моменту дані вважаються свіжими
+ * @param stale        {@code true}, якщо зовнішнє API недоступне і віддаються останні відомі дані
+ * @param version      версія запису в спільному кеші, що зростає з кожним оновленням ключа;
+ *                     {@code 0} — запис не проходив через спільний кеш
+ */
+public record ForecastEntry(
+    List<Forecast> forecasts,
+    List<ForecastPoint> periods,
+    byte[] json,
+    byte[] gzip,
+    String etag,
+    Instant fetchedAt,
+    Instant lastModified,
+    Instant expiresAt,
+    boolean stale,
+    long version
+) {
+
+  public boolean isStale(Duration ttl, Instant now) {
+    return fetchedAt.plus(ttl).isBefore(now);
+  }
+
+  /**
+   * @return скільки ще дані залишаються свіжими, не менше нуля
+   */
+  public Duration freshness(Instant now) {
+    return stale || expiresAt.isBefore(now) ? Duration.ZERO : Duration.between(now, expiresAt);
+  }
+
+  /**
+   * @return стандартне тіло відповіді — JSON
+   */
+  public ForecastBody body() {
+    return new ForecastBody(json, gzip, etag);
+  }
+
+  public ForecastEntry asStale() {
+    return new ForecastEntry(
+        forecasts, periods, json, gzip, etag, fetchedAt, lastModified, expiresAt, true, version);
+  }
+
+  public ForecastEntry withVersion(long version) {
+    return new ForecastEntry(
+        forecasts, periods, json, gzip, etag, fetchedAt, lastModified, expiresAt, stale, version);
+  }
+}
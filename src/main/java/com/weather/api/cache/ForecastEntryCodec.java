@@ -0,0 +1,135 @@
+package com.weather.api.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.weather.api.model.ForecastPoint;
+import com.weather.api.model.Weather;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Двійковий формат запису кешу для знімка на диску та спільного кешу: час отримання та зміни,
+ * ETag, готові тіла JSON та gzip і вихідні 3-годинні періоди (числа у двійковому вигляді). JSON при
+ * читанні не розбирається, див. {@link LazyForecasts}
+ */
+final class ForecastEntryCodec {
+
+  private final ObjectMapper objectMapper;
+
+  ForecastEntryCodec(ObjectMapper objectMapper) {
+    this.objectMapper = objectMapper;
+  }
+
+  byte[] toBytes(ForecastEntry entry) {
+    ByteArrayOutputStream bytes =
+        new ByteArrayOutputStream(entry.json().length + entry.gzip().length + 128);
+    try {
+      write(new DataOutputStream(bytes), entry);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return bytes.toByteArray();
+  }
+
+  ForecastEntry fromBytes(byte[] bytes, Duration ttl) {
+    return read(ByteBuffer.wrap(bytes), ttl);
+  }
+
+  void write(DataOutputStream out, ForecastEntry entry) throws IOException {
+    out.writeLong(entry.fetchedAt().toEpochMilli());
+    out.writeLong(entry.lastModified().toEpochMilli());
+    writeString(out, entry.etag());
+    out.writeInt(entry.json().length);
+    out.write(entry.json());
+    out.writeInt(entry.gzip().length);
+    out.write(entry.gzip());
+    writePeriods(out, entry.periods());
+  }
+
+  /**
+   * @param ttl скільки запис вважається свіжим, для {@link ForecastEntry#expiresAt()}
+   */
+  ForecastEntry read(ByteBuffer record, Duration ttl) {
+    Instant fetchedAt = Instant.ofEpochMilli(record.getLong());
+    Instant lastModified = Instant.ofEpochMilli(record.getLong());
+    String etag = readString(record);
+    byte[] json = readBytes(record);
+    byte[] gzip = readBytes(record);
+    List<ForecastPoint> periods = readPeriods(record);
+    return new ForecastEntry(new LazyForecasts(objectMapper, json), periods, json, gzip, etag,
+        fetchedAt, lastModified, fetchedAt.plus(ttl), false, 0);
+  }
+
+  static void writeString(DataOutputStream out, String value) throws IOException {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  static String readString(ByteBuffer record) {
+    return new String(readBytes(record), StandardCharsets.UTF_8);
+  }
+
+  private static byte[] readBytes(ByteBuffer record) {
+    byte[] bytes = new byte[record.getInt()];
+    record.get(bytes);
+    return bytes;
+  }
+
+  private static void writePeriods(DataOutputStream out, List<ForecastPoint> periods)
+      throws IOException {
+    out.writeInt(periods.size());
+    for (ForecastPoint period : periods) {
+      out.writeLong(period.dt());
+      out.writeDouble(period.temperature());
+      out.writeDouble(period.feelsLike());
+      out.writeDouble(period.minTemperature());
+      out.writeDouble(period.maxTemperature());
+      out.writeDouble(period.pressure());
+      out.writeDouble(period.humidity());
+      out.writeDouble(period.visibility());
+      out.writeDouble(period.windSpeed());
+      out.writeDouble(period.windGust());
+      out.writeDouble(period.windDeg());
+      out.writeInt(period.weathers().size());
+      for (Weather weather : period.weathers()) {
+        writeString(out, weather.getType());
+        writeString(out, weather.getDescription());
+        writeString(out, weather.getIcon());
+      }
+    }
+  }
+
+  private static List<ForecastPoint> readPeriods(ByteBuffer record) {
+    int size = record.getInt();
+    List<ForecastPoint> periods = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      long dt = record.getLong();
+      double temperature = record.getDouble();
+      double feelsLike = record.getDouble();
+      double minTemperature = record.getDouble();
+      double maxTemperature = record.getDouble();
+      double pressure = record.getDouble();
+      double humidity = record.getDouble();
+      double visibility = record.getDouble();
+      double windSpeed = record.getDouble();
+      double windGust = record.getDouble();
+      double windDeg = record.getDouble();
+      int weatherCount = record.getInt();
+      List<Weather> weathers = new ArrayList<>(weatherCount);
+      for (int j = 0; j < weatherCount; j++) {
+        weathers.add(new Weather(readString(record), readString(record), readString(record)));
+      }
+      periods.add(new ForecastPoint(dt, temperature, feelsLike, minTemperature, maxTemperature,
+          pressure, humidity, visibility, windSpeed, windGust, windDeg, weathers));
+    }
+    return periods;
+  }
+}
@@ -0,0 +1,222 @@
+package com.weather.api.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Знімок кешу прогнозів на диску для «теплого» перезапуску.
+ * <p>
+ * Файл — журнал, у який дописується кожен завантажений запис: {@code [довжина][crc32][дані]}, де
+ * дані — ключ і запис у форматі {@link ForecastEntryCodec}. При старті файл
+ * читається через відображення в пам'ять, для кожного ключа лишається останній запис, і
+ * відновлюються лише ті, що ще не вийшли за межі зберігання кешу. JSON при цьому не розбирається:
+ * список прогнозів будується з нього лише за потреби, див. {@link LazyForecasts}.
+ * <p>
+ * Читання зупиняється на першому обрізаному або пошкодженому записі — все, що було до нього,
+ * використовується. Після читання та при зупинці застосунку журнал перезаписується (атомарно)
+ * лише актуальними записами.
+ */
+@Slf4j
+@Component
+public class ForecastSnapshotStore implements AutoCloseable {
+
+  private static final int MAGIC = 0x57465332; // "WFS2"
+  private static final int HEADER_BYTES = Integer.BYTES * 2;
+
+  private final ForecastEntryCodec codec;
+  private final boolean enabled;
+  private final Path path;
+  private final Object lock = new Object();
+  private FileChannel journal;
+
+  public ForecastSnapshotStore(
+      ObjectMapper objectMapper,
+      @Value("${api.snapshot.enabled}") boolean enabled,
+      @Value("${api.snapshot.path}") Path path
+  ) {
+    this.codec = new ForecastEntryCodec(objectMapper);
+    this.enabled = enabled;
+    this.path = path;
+  }
+
+  /**
+   * Читає записи зі знімка, отримані не раніше {@code now - retention}
+   *
+   * @param retention скільки запис зберігається в кеші після отримання
+   * @param ttl       скільки запис вважається свіжим, для {@link ForecastEntry#expiresAt()}
+   * @return записи за ключами кешу
+   */
+  public Map<String, ForecastEntry> load(Duration retention, Duration ttl) {
+    Map<String, ForecastEntry> entries = new LinkedHashMap<>();
+    if (!enabled || !Files.isRegularFile(path)) {
+      return entries;
+    }
+
+    long start = System.nanoTime();
+    Map<String, ByteBuffer> latest = new LinkedHashMap<>();
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      if (buffer.remaining() < Integer.BYTES || buffer.getInt() != MAGIC) {
+        log.warn("Ignoring forecast snapshot {}: unknown format", path);
+        return entries;
+      }
+      readRecords(buffer, latest);
+    } catch (IOException e) {
+      log.warn("Cannot read forecast snapshot {}: {}", path, e.getMessage());
+      return entries;
+    }
+
+    Instant oldest = Instant.now().minus(retention);
+    latest.forEach((key, record) -> {
+      try {
+        ForecastEntry entry = codec.read(record, ttl);
+        if (entry.fetchedAt().isAfter(oldest)) {
+          entries.put(key, entry);
+        }
+      } catch (RuntimeException e) {
+        log.warn("Skipping unreadable snapshot record for '{}': {}", key, e.getMessage());
+      }
+    });
+    log.info("Loaded {} forecasts from snapshot {} in {} ms", entries.size(), path,
+        Duration.ofNanos(System.nanoTime() - start).toMillis());
+    return entries;
+  }
+
+  /**
+   * Дописує запис у журнал. Помилки запису лише логуються — знімок не впливає на відповідь
+   */
+  public void append(String key, ForecastEntry entry) {
+    if (!enabled) {
+      return;
+    }
+    try {
+      ByteBuffer record = encode(key, entry);
+      synchronized (lock) {
+        if (journal == null) {
+          journal = openJournal();
+        }
+        while (record.hasRemaining()) {
+          journal.write(record);
+        }
+      }
+    } catch (IOException e) {
+      log.warn("Cannot append '{}' to forecast snapshot: {}", key, e.getMessage());
+    }
+  }
+
+  /**
+   * Атомарно замінює журнал знімком переданих записів
+   */
+  public void compact(Map<String, ForecastEntry> entries) {
+    if (!enabled) {
+      return;
+    }
+    Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+    synchronized (lock) {
+      try {
+        closeJournal();
+        createParent();
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+          out.write(ByteBuffer.allocate(Integer.BYTES).putInt(MAGIC).flip());
+          for (Map.Entry<String, ForecastEntry> entry : entries.entrySet()) {
+            ByteBuffer record = encode(entry.getKey(), entry.getValue());
+            while (record.hasRemaining()) {
+              out.write(record);
+            }
+          }
+          out.force(false);
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+      } catch (IOException e) {
+        log.warn("Cannot write forecast snapshot {}: {}", path, e.getMessage());
+      }
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    synchronized (lock) {
+      closeJournal();
+    }
+  }
+
+  private static void readRecords(ByteBuffer buffer, Map<String, ByteBuffer> latest) {
+    CRC32 crc = new CRC32();
+    while (buffer.remaining() >= HEADER_BYTES) {
+      int length = buffer.getInt();
+      int checksum = buffer.getInt();
+      if (length <= 0 || length > buffer.remaining()) {
+        log.warn("Forecast snapshot is truncated, ignoring the tail");
+        return;
+      }
+      ByteBuffer record = buffer.slice(buffer.position(), length);
+      crc.reset();
+      crc.update(record.duplicate());
+      if ((int) crc.getValue() != checksum) {
+        log.warn("Forecast snapshot record is corrupt, ignoring the tail");
+        return;
+      }
+      buffer.position(buffer.position() + length);
+      latest.put(ForecastEntryCodec.readString(record), record);
+    }
+  }
+
+  private ByteBuffer encode(String key, ForecastEntry entry) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(
+        HEADER_BYTES + entry.json().length + entry.gzip().length + 128);
+    DataOutputStream out = new DataOutputStream(bytes);
+    out.writeLong(0); // місце для заголовка
+    ForecastEntryCodec.writeString(out, key);
+    codec.write(out, entry);
+
+    ByteBuffer record = ByteBuffer.wrap(bytes.toByteArray());
+    int length = record.capacity() - HEADER_BYTES;
+    CRC32 crc = new CRC32();
+    crc.update(record.array(), HEADER_BYTES, length);
+    record.putInt(0, length).putInt(Integer.BYTES, (int) crc.getValue());
+    return record;
+  }
+
+  private FileChannel openJournal() throws IOException {
+    createParent();
+    FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    if (channel.size() == 0) {
+      channel.write(ByteBuffer.allocate(Integer.BYTES).putInt(MAGIC).flip());
+    }
+    return channel;
+  }
+
+  private void closeJournal() throws IOException {
+    if (journal != null) {
+      journal.close();
+      journal = null;
+    }
+  }
+
+  private void createParent() throws IOException {
+    Path parent = path.toAbsolutePath().getParent();
+    if (parent != null) {
+      Files.createDirectories(parent);
+    }
+  }
+}
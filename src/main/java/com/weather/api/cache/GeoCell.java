@@ -0,0 +1,59 @@
+package com.weather.api.cache;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Optional;
+
+/**
+ * Центр комірки сітки координат, див. {@link GeoGrid}. Усі координати всередині комірки мають
+ * один ключ кешу і один запит до зовнішнього API
+ *
+ * @param lat широта центру комірки
+ * @param lon довгота центру комірки
+ */
+public record GeoCell(double lat, double lon) {
+
+  private static final String KEY_PREFIX = "geo:";
+  private static final int SCALE = 6;
+
+  /**
+   * @return ключ кешу, напр. {@code geo:50.45,30.55}
+   */
+  public String key() {
+    return KEY_PREFIX + format(lat) + "," + format(lon);
+  }
+
+  /**
+   * Розбирає ключ, створений {@link #key()}
+   *
+   * @param key ключ кешу
+   * @return комірка або порожнє значення, якщо це ключ міста
+   */
+  public static Optional<GeoCell> fromKey(String key) {
+    if (!key.startsWith(KEY_PREFIX)) {
+      return Optional.empty();
+    }
+
+    String[] parts = key.substring(KEY_PREFIX.length()).split(",", -1);
+    if (parts.length != 2) {
+      return Optional.empty();
+    }
+    try {
+      double lat = Double.parseDouble(parts[0]);
+      double lon = Double.parseDouble(parts[1]);
+      return GeoGrid.isValid(lat, lon) ? Optional.of(new GeoCell(lat, lon)) : Optional.empty();
+    } catch (NumberFormatException e) {
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Десятковий запис координати без експоненти та зайвих нулів, для ключа та URI
+   */
+  public static String format(double coordinate) {
+    return BigDecimal.valueOf(coordinate)
+        .setScale(SCALE, RoundingMode.HALF_UP)
+        .stripTrailingZeros()
+        .toPlainString();
+  }
+}
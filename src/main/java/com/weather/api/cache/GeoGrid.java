@@ -0,0 +1,46 @@
+package com.weather.api.cache;
+
+import com.weather.api.exception.BadRequestException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Прив'язує координати до центру комірки сітки з кроком {@code cell-size} градусів, щоб близькі
+ * запити використовували один запис кешу. Крок 0.1° — близько 11 км по широті
+ */
+@Component
+public class GeoGrid {
+
+  private final double cellSize;
+
+  public GeoGrid(@Value("${api.geo.cell-size}") double cellSize) {
+    this.cellSize = cellSize;
+  }
+
+  /**
+   * @param lat широта, від -90 до 90
+   * @param lon довгота, від -180 до 180
+   * @return комірка, що містить точку
+   * @throws BadRequestException якщо координати поза допустимими межами
+   */
+  public GeoCell snap(double lat, double lon) {
+    if (!isValid(lat, lon)) {
+      throw new BadRequestException("Некоректні координати: " + lat + ", " + lon);
+    }
+
+    double cellLat = Math.min(90, Math.max(-90, center(lat)));
+    double cellLon = center(lon >= 180 ? lon - 360 : lon);
+    if (cellLon > 180) {
+      cellLon -= 360;
+    }
+    return new GeoCell(cellLat, cellLon);
+  }
+
+  static boolean isValid(double lat, double lon) {
+    return lat >= -90 && lat <= 90 && lon >= -180 && lon <= 180;
+  }
+
+  private double center(double coordinate) {
+    return Math.floor(coordinate / cellSize) * cellSize + cellSize / 2;
+  }
+}
@@ -0,0 +1,52 @@
+package com.weather.api.cache;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.weather.api.model.Forecast;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.AbstractList;
+import java.util.List;
+
+/**
+ * Незмінний список прогнозів, що розбирається з готового JSON лише при першому зверненні. Для
+ * записів, відновлених зі знімка: відповідь віддається з готових байтів, тож більшість записів
+ * ніколи не потребує розбору
+ */
+final class LazyForecasts extends AbstractList<Forecast> {
+
+  private static final TypeReference<List<Forecast>> FORECASTS = new TypeReference<>() {
+  };
+
+  private final ObjectMapper objectMapper;
+  private final byte[] json;
+  private volatile List<Forecast> forecasts;
+
+  LazyForecasts(ObjectMapper objectMapper, byte[] json) {
+    this.objectMapper = objectMapper;
+    this.json = json;
+  }
+
+  @Override
+  public Forecast get(int index) {
+    return forecasts().get(index);
+  }
+
+  @Override
+  public int size() {
+    return forecasts().size();
+  }
+
+  private List<Forecast> forecasts() {
+    List<Forecast> result = forecasts;
+    if (result == null) {
+      try {
+        result = List.copyOf(objectMapper.readValue(json, FORECASTS));
+      } catch (IOException e) {
+        throw new UncheckedIOException("Cannot read cached forecast", e);
+      }
+      forecasts = result;
+    }
+    return result;
+  }
+}
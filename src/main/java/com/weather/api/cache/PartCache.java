@@ -0,0 +1,92 @@
+package com.weather.api.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.weather.api.shared.concurrent.SingleFlight;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Обмежений кеш однієї частини зведеної відповіді (напр. поточної погоди) з власним часом життя.
+ * <p>
+ * Запис свіжий протягом {@code ttl}, після цього наступний запит завантажує його синхронно.
+ * Ще {@code fallback-ttl} запис зберігається як «останнє відоме» значення, яке можна віддати
+ * з позначкою {@link Entry#stale()}, коли завантаження не вдалося або не вклалося в тайм-аут,
+ * див. {@link #lastKnown(String)}. Одночасні завантаження одного ключа об'єднуються через
+ * {@link SingleFlight}. Лічильники кешу публікуються як {@code cache.*{cache=<name>}}
+ *
+ * @param <V> тип значення
+ */
+public final class PartCache<V> {
+
+  private final Cache<String, Entry<V>> cache;
+  private final SingleFlight<String, Entry<V>> loads;
+  private final Duration ttl;
+
+  public PartCache(String name, MeterRegistry meterRegistry, long maxSize, Duration ttl,
+      Duration fallbackTtl, Duration coalesceTimeout) {
+    this.ttl = ttl;
+    this.loads = new SingleFlight<>(coalesceTimeout);
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfterWrite(ttl.plus(fallbackTtl))
+        .recordStats()
+        .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, name);
+  }
+
+  /**
+   * Повертає свіже значення з кешу, а за його відсутності завантажує
+   *
+   * @param key    ключ
+   * @param loader завантаження значення
+   * @return значення з часом отримання
+   */
+  public Entry<V> get(String key, Supplier<V> loader) {
+    Entry<V> entry = cache.getIfPresent(key);
+    if (entry != null && entry.expiresAt().isAfter(Instant.now())) {
+      return entry;
+    }
+
+    return loads.execute(key, () -> {
+      Instant now = Instant.now();
+      Entry<V> loaded = new Entry<>(loader.get(), now, now.plus(ttl), false);
+      cache.put(key, loaded);
+      return loaded;
+    });
+  }
+
+  /**
+   * Останнє відоме значення без завантаження, з позначкою {@link Entry#stale()}
+   *
+   * @param key ключ
+   * @return значення, якщо воно ще зберігається
+   */
+  public Optional<Entry<V>> lastKnown(String key) {
+    return Optional.ofNullable(cache.asMap().get(key)).map(Entry::asStale);
+  }
+
+  /**
+   * @param value     значення
+   * @param fetchedAt момент, коли значення отримано від зовнішнього API
+   * @param expiresAt до якого моменту значення вважається свіжим
+   * @param stale     {@code true}, якщо значення віддається замість невдалого завантаження
+   */
+  public record Entry<V>(V value, Instant fetchedAt, Instant expiresAt, boolean stale) {
+
+    /**
+     * @return скільки ще значення залишається свіжим, не менше нуля
+     */
+    public Duration freshness(Instant now) {
+      return stale || expiresAt.isBefore(now) ? Duration.ZERO : Duration.between(now, expiresAt);
+    }
+
+    Entry<V> asStale() {
+      return new Entry<>(value, fetchedAt, expiresAt, true);
+    }
+  }
+}
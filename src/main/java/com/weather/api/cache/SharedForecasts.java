@@ -0,0 +1,203 @@
+package com.weather.api.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.weather.api.cache.shared.Invalidation;
+import com.weather.api.cache.shared.SharedStore;
+import com.weather.api.cache.shared.SharedValue;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.ObjLongConsumer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Другий рівень {@link ForecastCache}, спільний для всіх вузлів застосунку ({@link SharedStore},
+ * {@code api.cache.l2.type}). Записи зберігаються у форматі {@link ForecastEntryCodec} з версією,
+ * що зростає з кожним оновленням ключа. Оновлення ключа виконує лише вузол, що отримав його
+ * оренду, а інші чекають на нову версію у спільному кеші. Після запису нової версії вузли
+ * отримують повідомлення {@link Invalidation} і видаляють старішу версію з локального кешу.
+ * <p>
+ * Без спільного сховища ({@code none}) кеш працює як раніше: читання нічого не знаходить, а
+ * оренда завжди отримується. Помилки сховища лише логуються — тоді вузол працює сам по собі.
+ * <p>
+ * Метрики: {@code forecast.cache.l2{result}} — читання ({@code hit}, {@code miss}, {@code error}),
+ * {@code forecast.cache.lease{outcome}} — оренди ({@code acquired}, {@code busy}) та
+ * {@code forecast.cache.invalidations} — отримані повідомлення від інших вузлів
+ */
+@Slf4j
+@Component
+public class SharedForecasts {
+
+  private static final long POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+  private final SharedStore store;
+  private final ForecastEntryCodec codec;
+  private final String nodeId = UUID.randomUUID().toString();
+  private final Duration leaseTtl;
+  private final Duration leaseWait;
+  private final Counter hits;
+  private final Counter misses;
+  private final Counter errors;
+  private final Counter leasesAcquired;
+  private final Counter leasesBusy;
+  private final Counter invalidations;
+
+  public SharedForecasts(
+      ObjectProvider<SharedStore> store,
+      ObjectMapper objectMapper,
+      MeterRegistry meterRegistry,
+      @Value("${api.cache.l2.lease-ttl}") Duration leaseTtl,
+      @Value("${api.cache.l2.lease-wait}") Duration leaseWait
+  ) {
+    this.store = store.getIfAvailable();
+    this.codec = new ForecastEntryCodec(objectMapper);
+    this.leaseTtl = leaseTtl;
+    this.leaseWait = leaseWait;
+    this.hits = counter(meterRegistry, "forecast.cache.l2", "result", "hit");
+    this.misses = counter(meterRegistry, "forecast.cache.l2", "result", "miss");
+    this.errors = counter(meterRegistry, "forecast.cache.l2", "result", "error");
+    this.leasesAcquired = counter(meterRegistry, "forecast.cache.lease", "outcome", "acquired");
+    this.leasesBusy = counter(meterRegistry, "forecast.cache.lease", "outcome", "busy");
+    this.invalidations = Counter.builder("forecast.cache.invalidations")
+        .description("Invalidation messages received from other nodes")
+        .register(meterRegistry);
+    if (this.store != null) {
+      log.info("Shared forecast cache {} enabled, node {}",
+          this.store.getClass().getSimpleName(), nodeId);
+    }
+  }
+
+  /**
+   * @param ttl скільки запис вважається свіжим
+   * @return запис зі спільного кешу з його версією або {@code null}
+   */
+  public ForecastEntry get(String key, Duration ttl) {
+    if (store == null) {
+      return null;
+    }
+    try {
+      SharedValue value = store.get(key);
+      if (value == null) {
+        misses.increment();
+        return null;
+      }
+      hits.increment();
+      return codec.fromBytes(value.value(), ttl).withVersion(value.version());
+    } catch (RuntimeException e) {
+      errors.increment();
+      log.warn("Cannot read '{}' from shared cache: {}", key, e.getMessage());
+      return null;
+    }
+  }
+
+  /**
+   * Записує нову версію та повідомляє інші вузли
+   *
+   * @param retention скільки запис зберігається після отримання даних
+   * @return запис з присвоєною версією; без спільного кешу або при помилці — той самий запис
+   */
+  public ForecastEntry put(String key, ForecastEntry entry, Duration retention) {
+    if (store == null) {
+      return entry;
+    }
+    try {
+      long version = store.put(key, codec.toBytes(entry), entry.fetchedAt().toEpochMilli(),
+          retention);
+      store.publish(new Invalidation(key, version, nodeId));
+      return entry.withVersion(version);
+    } catch (RuntimeException e) {
+      log.warn("Cannot write '{}' to shared cache: {}", key, e.getMessage());
+      return entry;
+    }
+  }
+
+  /**
+   * @return {@code true}, якщо цей вузол може оновлювати ключ
+   */
+  public boolean tryLease(String key) {
+    if (store == null) {
+      return true;
+    }
+    try {
+      if (store.tryLease(key, nodeId, leaseTtl)) {
+        leasesAcquired.increment();
+        return true;
+      }
+      leasesBusy.increment();
+      return false;
+    } catch (RuntimeException e) {
+      log.warn("Cannot lease '{}' in shared cache: {}", key, e.getMessage());
+      return true;
+    }
+  }
+
+  public void releaseLease(String key) {
+    if (store == null) {
+      return;
+    }
+    try {
+      store.releaseLease(key, nodeId);
+    } catch (RuntimeException e) {
+      log.warn("Cannot release lease of '{}': {}", key, e.getMessage());
+    }
+  }
+
+  /**
+   * Чекає, поки вузол з орендою запише версію, новішу за {@code version}, — не довше
+   * {@code lease-wait} і лише доки оренду хтось тримає
+   *
+   * @return новий запис або {@code null}, якщо оренду знято без нової версії або час вичерпано
+   */
+  public ForecastEntry awaitNewer(String key, long version, Duration ttl) {
+    if (store == null) {
+      return null;
+    }
+    long deadline = System.nanoTime() + leaseWait.toNanos();
+    try {
+      while (deadline - System.nanoTime() > 0 && !Thread.currentThread().isInterrupted()) {
+        LockSupport.parkNanos(POLL_NANOS);
+        ForecastEntry entry = get(key, ttl);
+        if (entry != null && entry.version() > version) {
+          return entry;
+        }
+        if (!store.isLeased(key)) {
+          return null;
+        }
+      }
+    } catch (RuntimeException e) {
+      log.warn("Cannot check lease of '{}': {}", key, e.getMessage());
+    }
+    return null;
+  }
+
+  /**
+   * Підписка на нові версії ключів, записані іншими вузлами
+   *
+   * @param listener отримує ключ і нову версію
+   */
+  public void onInvalidation(ObjLongConsumer<String> listener) {
+    if (store == null) {
+      return;
+    }
+    try {
+      store.subscribe(invalidation -> {
+        if (!nodeId.equals(invalidation.origin())) {
+          invalidations.increment();
+          listener.accept(invalidation.key(), invalidation.version());
+        }
+      });
+    } catch (RuntimeException e) {
+      log.warn("Cannot subscribe to shared cache invalidations: {}", e.getMessage());
+    }
+  }
+
+  private static Counter counter(MeterRegistry registry, String name, String tag, String value) {
+    return Counter.builder(name).tag(tag, value).register(registry);
+  }
+}
@@ -0,0 +1,90 @@
+package com.weather.api.cache.shared;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * {@link SharedStore} у пам'яті процесу з тією самою семантикою, що й {@link RedisSharedStore}:
+ * для одного вузла, локальної розробки та тестів, де кілька кешів в одному процесі мають спільне
+ * сховище. Прострочені значення та оренди видаляються при зверненні до них
+ */
+@Slf4j
+public class InMemorySharedStore implements SharedStore {
+
+  private final Map<String, Stored> values = new ConcurrentHashMap<>();
+  private final Map<String, Lease> leases = new ConcurrentHashMap<>();
+  private final List<Consumer<Invalidation>> listeners = new CopyOnWriteArrayList<>();
+
+  @Override
+  public SharedValue get(String key) {
+    Stored stored = values.get(key);
+    if (stored == null || stored.isExpired(System.nanoTime())) {
+      return null;
+    }
+    return stored.value;
+  }
+
+  @Override
+  public long put(String key, byte[] value, long minVersion, Duration ttl) {
+    long now = System.nanoTime();
+    Stored stored = values.compute(key, (k, current) -> {
+      long previous = current == null || current.isExpired(now) ? 0 : current.value.version();
+      long version = Math.max(previous + 1, minVersion);
+      return new Stored(new SharedValue(version, value), now + ttl.toNanos());
+    });
+    return stored.value.version();
+  }
+
+  @Override
+  public boolean tryLease(String key, String owner, Duration ttl) {
+    long now = System.nanoTime();
+    Lease lease = leases.compute(key, (k, current) ->
+        current == null || current.expiresAt - now <= 0
+            ? new Lease(owner, now + ttl.toNanos())
+            : current);
+    return lease.owner.equals(owner) && lease.expiresAt - now > 0;
+  }
+
+  @Override
+  public boolean isLeased(String key) {
+    Lease lease = leases.get(key);
+    return lease != null && lease.expiresAt - System.nanoTime() > 0;
+  }
+
+  @Override
+  public void releaseLease(String key, String owner) {
+    leases.computeIfPresent(key, (k, lease) -> lease.owner.equals(owner) ? null : lease);
+  }
+
+  @Override
+  public void publish(Invalidation invalidation) {
+    for (Consumer<Invalidation> listener : listeners) {
+      try {
+        listener.accept(invalidation);
+      } catch (RuntimeException e) {
+        log.warn("Invalidation listener failed for '{}': {}", invalidation.key(), e.getMessage());
+      }
+    }
+  }
+
+  @Override
+  public void subscribe(Consumer<Invalidation> listener) {
+    listeners.add(listener);
+  }
+
+  private record Stored(SharedValue value, long expiresAt) {
+
+    boolean isExpired(long now) {
+      return expiresAt - now <= 0;
+    }
+  }
+
+  private record Lease(String owner, long expiresAt) {
+
+  }
+}
@@ -0,0 +1,30 @@
+package com.weather.api.cache.shared;
+
+/**
+ * Повідомлення про нову версію ключа в спільному кеші: вузли, що мають у локальному кеші старішу
+ * версію, видаляють її і при наступному запиті беруть нову зі спільного кешу
+ *
+ * @param key     ключ кешу
+ * @param version нова версія
+ * @param origin  ідентифікатор вузла, що записав нову версію
+ */
+public record Invalidation(String key, long version, String origin) {
+
+  /**
+   * @return рядок {@code origin version key}; ключ останній, бо може містити пробіли
+   */
+  public String encode() {
+    return origin + " " + version + " " + key;
+  }
+
+  /**
+   * @throws IllegalArgumentException якщо повідомлення має інший формат
+   */
+  public static Invalidation decode(String message) {
+    String[] parts = message.split(" ", 3);
+    if (parts.length != 3) {
+      throw new IllegalArgumentException("Malformed invalidation message: " + message);
+    }
+    return new Invalidation(parts[2], Long.parseLong(parts[1]), parts[0]);
+  }
+}
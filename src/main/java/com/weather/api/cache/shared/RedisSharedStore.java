@@ -0,0 +1,125 @@
+package com.weather.api.cache.shared;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+/**
+ * {@link SharedStore} у Redis (або сумісному сховищі, що підтримує Lua та pub/sub).
+ * <p>
+ * Значення — хеш {@code <prefix>forecast:<ключ>} з полями {@code version} та {@code value}; нова
+ * версія присвоюється і записується разом зі значенням одним Lua скриптом. Оренда — рядок
+ * {@code <prefix>lease:<ключ>} з ідентифікатором власника ({@code SET NX PX}), знімається скриптом
+ * лише власником. Повідомлення розсилаються через канал {@code <prefix>invalidations}
+ */
+@Slf4j
+public class RedisSharedStore implements SharedStore {
+
+  private static final String VERSION = "version";
+  private static final String VALUE = "value";
+  private static final RedisScript<Long> PUT = RedisScript.of("""
+      local current = tonumber(redis.call('HGET', KEYS[1], 'version') or '0')
+      local version = math.max(current + 1, tonumber(ARGV[2]))
+      redis.call('HSET', KEYS[1], 'version', version, 'value', ARGV[1])
+      redis.call('PEXPIRE', KEYS[1], ARGV[3])
+      return version
+      """, Long.class);
+  private static final RedisScript<Long> RELEASE = RedisScript.of("""
+      if redis.call('GET', KEYS[1]) == ARGV[1] then
+        return redis.call('DEL', KEYS[1])
+      end
+      return 0
+      """, Long.class);
+
+  private final RedisTemplate<String, byte[]> redis;
+  private final HashOperations<String, String, byte[]> hashes;
+  private final RedisMessageListenerContainer listeners;
+  private final String prefix;
+  private final ChannelTopic channel;
+
+  public RedisSharedStore(RedisConnectionFactory connectionFactory,
+      RedisMessageListenerContainer listeners, String prefix) {
+    this.redis = new RedisTemplate<>();
+    redis.setConnectionFactory(connectionFactory);
+    redis.setKeySerializer(RedisSerializer.string());
+    redis.setValueSerializer(RedisSerializer.byteArray());
+    redis.setHashKeySerializer(RedisSerializer.string());
+    redis.setHashValueSerializer(RedisSerializer.byteArray());
+    redis.afterPropertiesSet();
+    this.hashes = redis.opsForHash();
+    this.listeners = listeners;
+    this.prefix = prefix;
+    this.channel = new ChannelTopic(prefix + "invalidations");
+  }
+
+  @Override
+  public SharedValue get(String key) {
+    List<byte[]> fields = hashes.multiGet(prefix + "forecast:" + key, List.of(VERSION, VALUE));
+    if (fields.size() != 2 || fields.get(0) == null || fields.get(1) == null) {
+      return null;
+    }
+    return new SharedValue(Long.parseLong(string(fields.get(0))), fields.get(1));
+  }
+
+  @Override
+  public long put(String key, byte[] value, long minVersion, Duration ttl) {
+    Long version = redis.execute(PUT, List.of(prefix + "forecast:" + key),
+        value, bytes(minVersion), bytes(ttl.toMillis()));
+    if (version == null) {
+      throw new IllegalStateException("Redis returned no version for '" + key + "'");
+    }
+    return version;
+  }
+
+  @Override
+  public boolean tryLease(String key, String owner, Duration ttl) {
+    Boolean acquired = redis.opsForValue()
+        .setIfAbsent(prefix + "lease:" + key, owner.getBytes(StandardCharsets.UTF_8), ttl);
+    return Boolean.TRUE.equals(acquired);
+  }
+
+  @Override
+  public boolean isLeased(String key) {
+    return Boolean.TRUE.equals(redis.hasKey(prefix + "lease:" + key));
+  }
+
+  @Override
+  public void releaseLease(String key, String owner) {
+    redis.execute(RELEASE, List.of(prefix + "lease:" + key),
+        (Object) owner.getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Override
+  public void publish(Invalidation invalidation) {
+    redis.convertAndSend(channel.getTopic(),
+        invalidation.encode().getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Override
+  public void subscribe(Consumer<Invalidation> listener) {
+    listeners.addMessageListener((message, pattern) -> {
+      try {
+        listener.accept(Invalidation.decode(string(message.getBody())));
+      } catch (RuntimeException e) {
+        log.warn("Ignoring invalidation message: {}", e.getMessage());
+      }
+    }, channel);
+  }
+
+  private static byte[] bytes(long value) {
+    return Long.toString(value).getBytes(StandardCharsets.US_ASCII);
+  }
+
+  private static String string(byte[] bytes) {
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
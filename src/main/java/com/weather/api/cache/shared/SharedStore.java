@@ -0,0 +1,59 @@
+package com.weather.api.cache.shared;
+
+import java.time.Duration;
+import java.util.function.Consumer;
+
+/**
+ * Спільне сховище кешу другого рівня для кількох вузлів застосунку: версіоновані значення,
+ * оренда ключа та розсилка повідомлень про оновлення. Реалізації — {@link RedisSharedStore} для
+ * розгортання з кількома вузлами та {@link InMemorySharedStore} в межах одного процесу.
+ * <p>
+ * Помилки сховища реалізації передають як {@link RuntimeException}; спільний кеш — оптимізація,
+ * тому викликач трактує їх як відсутність значення
+ */
+public interface SharedStore {
+
+  /**
+   * @param key ключ кешу
+   * @return значення з версією або {@code null}
+   */
+  SharedValue get(String key);
+
+  /**
+   * Атомарно зберігає значення з новою версією — більшою за збережену і не меншою за
+   * {@code minVersion}, тож версії ключа лише зростають, навіть після закінчення терміну
+   * зберігання, якщо {@code minVersion} зростає з часом
+   *
+   * @param key        ключ кешу
+   * @param value      значення
+   * @param minVersion найменша допустима версія, напр. час отримання даних у мілісекундах
+   * @param ttl        скільки зберігати значення
+   * @return присвоєна версія
+   */
+  long put(String key, byte[] value, long minVersion, Duration ttl);
+
+  /**
+   * Бере оренду ключа, якщо її не тримає інший власник. Оренда знімається сама через
+   * {@code ttl}, якщо власник не зняв її раніше
+   *
+   * @return {@code true}, якщо оренду отримано
+   */
+  boolean tryLease(String key, String owner, Duration ttl);
+
+  /**
+   * @return чи тримає оренду ключа будь-який власник
+   */
+  boolean isLeased(String key);
+
+  /**
+   * Знімає оренду, якщо її досі тримає {@code owner}
+   */
+  void releaseLease(String key, String owner);
+
+  /**
+   * Розсилає повідомлення всім підписникам, включно з відправником
+   */
+  void publish(Invalidation invalidation);
+
+  void subscribe(Consumer<Invalidation> listener);
+}
@@ -0,0 +1,11 @@
+package com.weather.api.cache.shared;
+
+/**
+ * Значення спільного кешу
+ *
+ * @param version версія значення, зростає з кожним оновленням ключа
+ * @param value   серіалізований запис кешу
+ */
+public record SharedValue(long version, byte[] value) {
+
+}
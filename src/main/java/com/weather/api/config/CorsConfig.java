@@ -14,7 +14,7 @@ public class CorsConfig implements WebMvcConfigurer {
   public void addCorsMappings(CorsRegistry registry) {
     registry.addMapping("/api/v1/**")
         .allowedOrigins(allowedOrigin)
-        .allowedMethods("GET")
+        .allowedMethods("GET", "POST")
         .allowCredentials(true);
   }
 }
@@ -0,0 +1,50 @@
+package com.weather.api.config;
+
+import com.weather.api.exception.BadRequestException;
+import com.weather.api.exception.ResourceNotFoundException;
+import com.weather.api.exception.ServiceUnavailableException;
+import com.weather.api.model.CityInfo;
+import com.weather.api.model.Forecast;
+import com.weather.api.model.ForecastPoint;
+import com.weather.api.model.WindowForecast;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Підказки Spring AOT для native image про те, що не видно з сигнатур контролерів: моделі, які
+ * серіалізуються заздалегідь у кеші, записи довідника міст, анотації {@code @ResponseStatus}
+ * винятків і файл довідника з класпасу
+ */
+@Configuration
+@ImportRuntimeHints(NativeHintsConfig.Hints.class)
+public class NativeHintsConfig {
+
+  private static final String[] BINDING_TYPES = {
+      "com.weather.api.service.impl.CityServiceImpl$CityRecord",
+      "com.weather.api.service.impl.CityServiceImpl$Coord"
+  };
+
+  static class Hints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+      BindingReflectionHintsRegistrar binding = new BindingReflectionHintsRegistrar();
+      binding.registerReflectionHints(hints.reflection(),
+          Forecast.class, ForecastPoint.class, WindowForecast.class, CityInfo.class);
+      for (String type : BINDING_TYPES) {
+        binding.registerReflectionHints(hints.reflection(),
+            ClassUtils.resolveClassName(type, classLoader));
+      }
+
+      hints.reflection()
+          .registerType(ResourceNotFoundException.class)
+          .registerType(BadRequestException.class)
+          .registerType(ServiceUnavailableException.class);
+      hints.resources().registerPattern("cities/*");
+    }
+  }
+}
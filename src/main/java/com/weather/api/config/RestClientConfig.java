@@ -1,8 +1,18 @@
 package com.weather.api.config;
 
+import java.time.Duration;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestClient;
 
 @Configuration
@@ -10,11 +20,54 @@ public class RestClientConfig {
 
   @Bean
   public RestClient restClient(
-      RestClient.Builder builder, @Value("${api.base-url}") String baseApiUrl) {
+      RestClient.Builder builder, CloseableHttpClient httpClient,
+      @Value("${api.base-url}") String baseApiUrl) {
     return builder
         .baseUrl(baseApiUrl)
+        .requestFactory(new HttpComponentsClientHttpRequestFactory(httpClient))
         .defaultHeader("Content-Type", "application/json")
         .build();
   }
 
+  /**
+   * HTTP клієнт з пулом з'єднань до OpenWeatherMap. Усі тайм-аути явні, щоб повільне зовнішнє API
+   * не тримало потоки довше, ніж задано в конфігурації
+   *
+   * @param maxConnections  максимум з'єднань у пулі (усі вони до одного хосту)
+   * @param connectTimeout  тайм-аут встановлення з'єднання
+   * @param readTimeout     тайм-аут очікування відповіді
+   * @param poolTimeout     скільки чекати на вільне з'єднання з пулу
+   * @param keepAlive       скільки тримати невикористане з'єднання відкритим
+   * @return клієнт, що закривається разом з контекстом
+   */
+  @Bean(destroyMethod = "close")
+  public CloseableHttpClient upstreamHttpClient(
+      @Value("${api.http.max-connections}") int maxConnections,
+      @Value("${api.http.connect-timeout}") Duration connectTimeout,
+      @Value("${api.http.read-timeout}") Duration readTimeout,
+      @Value("${api.http.pool-timeout}") Duration poolTimeout,
+      @Value("${api.http.keep-alive}") Duration keepAlive
+  ) {
+    PoolingHttpClientConnectionManager connectionManager =
+        PoolingHttpClientConnectionManagerBuilder.create()
+            .setMaxConnTotal(maxConnections)
+            .setMaxConnPerRoute(maxConnections)
+            .setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.of(connectTimeout))
+                .setSocketTimeout(Timeout.of(readTimeout))
+                .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                .build())
+            .build();
+
+    return HttpClients.custom()
+        .setConnectionManager(connectionManager)
+        .setDefaultRequestConfig(RequestConfig.custom()
+            .setConnectionRequestTimeout(Timeout.of(poolTimeout))
+            .setResponseTimeout(Timeout.of(readTimeout))
+            .build())
+        .setKeepAliveStrategy((response, context) -> TimeValue.of(keepAlive))
+        .evictIdleConnections(TimeValue.of(keepAlive))
+        .evictExpiredConnections()
+        .build();
+  }
 }
@@ -0,0 +1,13 @@
+package com.weather.api.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Вмикає автоконфігурацію {@link org.springframework.scheduling.TaskScheduler} для фонових задач
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+
+}
@@ -0,0 +1,57 @@
+package com.weather.api.config;
+
+import com.weather.api.cache.shared.InMemorySharedStore;
+import com.weather.api.cache.shared.RedisSharedStore;
+import com.weather.api.cache.shared.SharedStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.data.redis.RedisAutoConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * Спільний кеш другого рівня за {@code api.cache.l2.type}: {@code none} (за замовчуванням) — без
+ * нього, {@code memory} — у пам'яті процесу, {@code redis} — Redis з налаштувань
+ * {@code spring.data.redis.*}
+ * <p>
+ * Автоконфігурація Redis вимкнена в {@link com.weather.api.Main} і підключається лише для
+ * {@code redis}, див. {@link RedisConfig}: без L2 не створюються фабрика з'єднань, клієнт Lettuce
+ * та сканування репозиторіїв
+ */
+@Configuration
+public class SharedCacheConfig {
+
+  private static final String TYPE = "api.cache.l2.type";
+
+  @Bean
+  @ConditionalOnProperty(name = TYPE, havingValue = "memory")
+  public SharedStore inMemorySharedStore() {
+    return new InMemorySharedStore();
+  }
+
+  @Configuration(proxyBeanMethods = false)
+  @ConditionalOnProperty(name = TYPE, havingValue = "redis")
+  @Import(RedisAutoConfiguration.class)
+  static class RedisConfig {
+
+    @Bean
+    public RedisMessageListenerContainer sharedCacheListenerContainer(
+        RedisConnectionFactory connectionFactory) {
+      RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+      container.setConnectionFactory(connectionFactory);
+      return container;
+    }
+
+    @Bean
+    public SharedStore redisSharedStore(
+        RedisConnectionFactory connectionFactory,
+        RedisMessageListenerContainer sharedCacheListenerContainer,
+        @Value("${api.cache.l2.prefix}") String prefix
+    ) {
+      return new RedisSharedStore(connectionFactory, sharedCacheListenerContainer, prefix);
+    }
+  }
+}
@@ -0,0 +1,38 @@
+package com.weather.api.controller;
+
+import com.weather.api.model.CityInfo;
+import com.weather.api.service.contract.CityService;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/cities")
+public class CityController {
+
+  private final CityService cityService;
+  private final int maxLimit;
+
+  public CityController(
+      CityService cityService,
+      @Value("${api.cities.autocomplete-max}") int maxLimit
+  ) {
+    this.cityService = cityService;
+    this.maxLimit = maxLimit;
+  }
+
+  /**
+   * Автодоповнення назви міста за довідником; регістр, діакритика та кирилиця не мають значення
+   */
+  @GetMapping
+  public ResponseEntity<List<CityInfo>> complete(
+      @RequestParam String prefix,
+      @RequestParam(defaultValue = "10") int limit
+  ) {
+    return ResponseEntity.ok(cityService.complete(prefix, Math.max(0, Math.min(limit, maxLimit))));
+  }
+}
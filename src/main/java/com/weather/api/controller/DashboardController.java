@@ -0,0 +1,48 @@
+package com.weather.api.controller;
+
+import com.weather.api.model.Dashboard;
+import com.weather.api.service.contract.DashboardService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/dashboard")
+@RequiredArgsConstructor
+public class DashboardController {
+
+  private final DashboardService dashboardService;
+
+  /**
+   * Поточна погода, прогноз на п'ять днів і якість повітря одним документом. Частини
+   * запитуються паралельно, кожна зі своїм тайм-аутом; частина, що не вдалася, містить опис
+   * помилки або останні відомі дані, а решта віддається як зазвичай. {@code Cache-Control:
+   * max-age} — найменша свіжість серед частин
+   */
+  @GetMapping("/{cityName}")
+  public ResponseEntity<Dashboard> searchByCityName(@PathVariable String cityName) {
+    return ok(dashboardService.searchByCityName(cityName));
+  }
+
+  /**
+   * Зведена відповідь за координатами, як у {@link #searchByCityName}
+   */
+  @GetMapping(params = {"lat", "lon"})
+  public ResponseEntity<Dashboard> searchByCoordinates(
+      @RequestParam double lat,
+      @RequestParam double lon
+  ) {
+    return ok(dashboardService.searchByCoordinates(lat, lon));
+  }
+
+  private static ResponseEntity<Dashboard> ok(Dashboard dashboard) {
+    return ResponseEntity.ok()
+        .cacheControl(CacheControl.maxAge(dashboard.maxAge()))
+        .body(dashboard);
+  }
+}
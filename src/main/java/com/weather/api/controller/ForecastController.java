@@ -1,25 +1,223 @@
 package com.weather.api.controller;
 
-import com.weather.api.model.Forecast;
+import com.weather.api.cache.ForecastBody;
+import com.weather.api.cache.ForecastEntry;
+import com.weather.api.model.AggregationWindow;
+import com.weather.api.model.BatchForecastRequest;
+import com.weather.api.model.BatchForecastResponse;
+import com.weather.api.model.ForecastView;
+import com.weather.api.model.ResponseFormat;
+import com.weather.api.model.Units;
+import com.weather.api.service.contract.ForecastBatchService;
 import com.weather.api.service.contract.ForecastService;
-import java.util.List;
+import java.time.Duration;
+import java.time.Instant;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/api/v1/forecasts")
 @RequiredArgsConstructor
 public class ForecastController {
 
+  private static final String STALE_HEADER = "X-Forecast-Stale";
+
   private final ForecastService forecastService;
+  private final ForecastBatchService forecastBatchService;
+
+  /**
+   * Тіло відповіді береться з кешу вже серіалізованим (а для клієнтів з
+   * {@code Accept-Encoding: gzip} — ще й стиснутим), тож на запит не створюється граф об'єктів
+   * і не виконується стискання.
+   * <p>
+   * Відповідь містить сильний {@code ETag} за вмістом прогнозу, {@code Last-Modified} — коли
+   * вміст востаннє змінився, та {@code Cache-Control: max-age} на залишок свіжості даних. Запит з
+   * відповідним {@code If-None-Match}/{@code If-Modified-Since} отримує {@code 304} без тіла.
+   * Якщо зовнішнє API недоступне і віддаються останні відомі дані, відповідь позначається
+   * заголовком {@value #STALE_HEADER} та {@code Age} — вік даних у секундах.
+   * <p>
+   * Представлення відповіді, див. {@link ForecastView}:
+   * <ul>
+   *   <li>{@code units} — {@code metric} (за замовчуванням), {@code imperial} або
+   *   {@code standard}, як в OpenWeatherMap</li>
+   *   <li>{@code fields} — лише вказані поля кожного дня, напр. {@code date,temperature,wind.speed}
+   *   </li>
+   *   <li>{@code envelope=true} — дані міста один раз, а не в кожному дні</li>
+   *   <li>{@code Accept: application/cbor} або {@code application/x-jackson-smile} — бінарний
+   *   формат замість JSON</li>
+   * </ul>
+   * Усі представлення будуються з одного запису кешу
+   */
+  @GetMapping(value = "/{cityName}", produces = {
+      MediaType.APPLICATION_JSON_VALUE, ResponseFormat.CBOR_VALUE, ResponseFormat.SMILE_VALUE})
+  public ResponseEntity<byte[]> searchByCityName(
+      @PathVariable String cityName,
+      @RequestParam(defaultValue = "metric") String units,
+      @RequestParam(required = false) String fields,
+      @RequestParam(defaultValue = "false") boolean envelope,
+      @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+      @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
+  ) {
+    ForecastView view = view(units, fields, envelope, accept);
+    return respond(forecastService.searchByCityName(cityName), view, acceptEncoding);
+  }
+
+  /**
+   * Прогноз за координатами. Точка прив'язується до комірки сітки ({@code api.geo.cell-size}),
+   * тож близькі запити отримують спільний запис кешу; параметри та відповідь — як у
+   * {@link #searchByCityName}
+   */
+  @GetMapping(params = {"lat", "lon"}, produces = {
+      MediaType.APPLICATION_JSON_VALUE, ResponseFormat.CBOR_VALUE, ResponseFormat.SMILE_VALUE})
+  public ResponseEntity<byte[]> searchByCoordinates(
+      @RequestParam double lat,
+      @RequestParam double lon,
+      @RequestParam(defaultValue = "metric") String units,
+      @RequestParam(required = false) String fields,
+      @RequestParam(defaultValue = "false") boolean envelope,
+      @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+      @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
+  ) {
+    ForecastView view = view(units, fields, envelope, accept);
+    return respond(forecastService.searchByCoordinates(lat, lon), view, acceptEncoding);
+  }
+
+  /**
+   * Прогноз, агрегований у вікна {@code window} ({@code 3h} — вихідні 3-годинні періоди,
+   * {@code 6h}, {@code 12h}, {@code 1d}), потоком NDJSON: кожне вікно — окремий рядок JSON з
+   * {@code start}/{@code end}, що надсилається, щойно вікно підраховане. Прогноз береться з того
+   * самого запису кешу, що й для {@link #searchByCityName}, тож помилки (404, 503) повертаються
+   * до початку потоку звичайною відповіддю
+   */
+  @GetMapping(value = "/{cityName}/periods", produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public ResponseEntity<StreamingResponseBody> streamByCityName(
+      @PathVariable String cityName,
+      @RequestParam(defaultValue = "3h") String window,
+      @RequestParam(defaultValue = "metric") String units
+  ) {
+    AggregationWindow size = AggregationWindow.parse(window);
+    Units system = Units.parse(units);
+    return stream(forecastService.searchByCityName(cityName), size, system);
+  }
+
+  /**
+   * Потік вікон агрегації за координатами, як у {@link #streamByCityName}
+   */
+  @GetMapping(value = "/periods", params = {"lat", "lon"},
+      produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public ResponseEntity<StreamingResponseBody> streamByCoordinates(
+      @RequestParam double lat,
+      @RequestParam double lon,
+      @RequestParam(defaultValue = "3h") String window,
+      @RequestParam(defaultValue = "metric") String units
+  ) {
+    AggregationWindow size = AggregationWindow.parse(window);
+    Units system = Units.parse(units);
+    return stream(forecastService.searchByCoordinates(lat, lon), size, system);
+  }
+
+  @PostMapping("/batch")
+  public ResponseEntity<BatchForecastResponse> searchByCityNames(
+      @RequestBody BatchForecastRequest request) {
+    return ResponseEntity.ok(forecastBatchService.searchByCityNames(request.cities()));
+  }
+
+  private static ForecastView view(String units, String fields, boolean envelope, String accept) {
+    return new ForecastView(Units.parse(units), ResponseFormat.negotiate(accept),
+        ForecastView.parseFields(fields), envelope);
+  }
+
+  private ResponseEntity<byte[]> respond(
+      ForecastEntry entry, ForecastView view, String acceptEncoding) {
+    ForecastBody body = forecastService.render(entry, view);
+    boolean gzip = acceptsGzip(acceptEncoding);
+
+    // Сильний ETag відрізняється для кожного кодування вмісту
+    ResponseEntity.BodyBuilder response = ok(entry)
+        .contentType(view.format().mediaType())
+        .eTag(gzip ? body.etag() + "-gzip" : body.etag())
+        .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+    if (gzip) {
+      return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(body.gzip());
+    }
+    return response.body(body.body());
+  }
+
+  private ResponseEntity<StreamingResponseBody> stream(
+      ForecastEntry entry, AggregationWindow window, Units units) {
+    return ok(entry)
+        .contentType(MediaType.APPLICATION_NDJSON)
+        .body(out -> forecastService.writeWindows(entry, window, units, out));
+  }
+
+  /**
+   * Заголовки кешування та позначка застарілих даних, спільні для всіх представлень запису
+   */
+  private static ResponseEntity.BodyBuilder ok(ForecastEntry entry) {
+    Instant now = Instant.now();
+    ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+        .lastModified(entry.lastModified())
+        .cacheControl(CacheControl.maxAge(entry.freshness(now)));
+    if (entry.stale()) {
+      response
+          .header(STALE_HEADER, "true")
+          .header(HttpHeaders.AGE,
+              String.valueOf(Duration.between(entry.fetchedAt(), now).toSeconds()));
+    }
+    return response;
+  }
+
+  /**
+   * Чи приймає клієнт gzip: явне кодування {@code gzip} з {@code q > 0}, а без нього —
+   * {@code *} з {@code q > 0}. Явний {@code gzip;q=0} забороняє gzip і поруч з {@code *}
+   */
+  private static boolean acceptsGzip(String acceptEncoding) {
+    if (acceptEncoding == null) {
+      return false;
+    }
+
+    double gzip = -1;
+    double wildcard = -1;
+    for (String coding : acceptEncoding.split(",")) {
+      String[] parts = coding.split(";");
+      String name = parts[0].trim();
+      if (name.equalsIgnoreCase("gzip")) {
+        gzip = Math.max(gzip, quality(parts));
+      } else if (name.equals("*")) {
+        wildcard = Math.max(wildcard, quality(parts));
+      }
+    }
+    return gzip >= 0 ? gzip > 0 : wildcard > 0;
+  }
 
-  @GetMapping("/{cityName}")
-  public ResponseEntity<List<Forecast>> searchByCityName(@PathVariable String cityName) {
-    return ResponseEntity.ok(forecastService.searchByCityName(cityName));
+  /**
+   * Значення {@code q} з параметрів кодування: 1 за замовчуванням, 0 для некоректного значення
+   */
+  private static double quality(String[] parts) {
+    for (int i = 1; i < parts.length; i++) {
+      String param = parts[i].trim().replace(" ", "");
+      if (param.regionMatches(true, 0, "q=", 0, 2)) {
+        try {
+          double q = Double.parseDouble(param.substring(2));
+          return q >= 0 && q <= 1 ? q : 0;
+        } catch (NumberFormatException e) {
+          return 0;
+        }
+      }
+    }
+    return 1;
   }
 
 }
@@ -0,0 +1,13 @@
+package com.weather.api.exception;
+
+import com.weather.api.shared.exception.ResourceException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class BadRequestException extends ResourceException {
+
+  public BadRequestException(String message) {
+    super(message, null, false);
+  }
+}
@@ -8,6 +8,11 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 public class ResourceNotFoundException extends ResourceException {
 
   public ResourceNotFoundException(String message) {
-    super(message);
+    super(message, null, false);
+  }
+
+  public ResourceNotFoundException(String message, Object details) {
+    super(message, null, false);
+    setDetails(details);
   }
 }
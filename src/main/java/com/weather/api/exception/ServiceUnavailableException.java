@@ -0,0 +1,40 @@
+package com.weather.api.exception;
+
+import com.weather.api.shared.exception.ResourceException;
+import java.time.Duration;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class ServiceUnavailableException extends ResourceException {
+
+  /**
+   * Без стеку викликів: відмова без причини — очікуваний результат (вичерпано ліміт, сервіс
+   * перевантажений), а винятки з причиною зберігають стек для логу
+   */
+  public ServiceUnavailableException(String message) {
+    super(message, null, false);
+  }
+
+  public ServiceUnavailableException(String message, Throwable cause) {
+    super(message, cause);
+  }
+
+  public ServiceUnavailableException(String message, Throwable cause, String messageLog) {
+    super(message, cause, messageLog);
+  }
+
+  /**
+   * @param retryAfter через скільки варто повторити запит, передається клієнту в заголовку
+   *                   {@code Retry-After}
+   */
+  public ServiceUnavailableException(String message, Duration retryAfter) {
+    super(message, null, false);
+    setRetryAfter(retryAfter);
+  }
+
+  public ServiceUnavailableException(String message, Throwable cause, Duration retryAfter) {
+    super(message, cause);
+    setRetryAfter(retryAfter);
+  }
+}
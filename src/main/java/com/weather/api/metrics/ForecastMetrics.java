@@ -0,0 +1,129 @@
+package com.weather.api.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Метрики гарячого шляху прогнозу:
+ * <ul>
+ *   <li>{@code forecast.stage{stage}} — тривалість етапів: {@code upstream} (до заголовків
+ *   відповіді OpenWeatherMap), {@code parse}, {@code aggregate}, {@code parse_aggregate}
+ *   (потоковий режим, де розбір і агрегація суміщені), {@code serialize} (JSON чи інше
+ *   представлення прогнозу разом з ETag) та {@code compress} (gzip готового тіла);</li>
+ *   <li>{@code forecast.upstream.responses{status}} — відповіді зовнішнього API за статусом,
+ *   {@code io_error} для мережевих помилок;</li>
+ *   <li>{@code forecast.upstream.response.size} — розмір тіла відповіді в байтах;</li>
+ *   <li>{@code forecast.requests{city}} — запити по містах. Кількість значень тегу обмежена
+ *   {@code api.metrics.max-city-tags}, і місце отримують лише міста, прогноз яких вдалося
+ *   отримати, — решта, зокрема невідомі назви, рахується як {@code other}.</li>
+ * </ul>
+ */
+@Component
+public class ForecastMetrics {
+
+  public static final String STAGE_UPSTREAM = "upstream";
+  public static final String STAGE_PARSE = "parse";
+  public static final String STAGE_AGGREGATE = "aggregate";
+  public static final String STAGE_PARSE_AGGREGATE = "parse_aggregate";
+  public static final String STAGE_SERIALIZE = "serialize";
+  public static final String STAGE_COMPRESS = "compress";
+
+  private static final String OTHER_CITY = "other";
+
+  private final MeterRegistry registry;
+  private final int maxCityTags;
+  private final Map<String, Timer> stages = new ConcurrentHashMap<>();
+  private final Map<String, Counter> upstreamResponses = new ConcurrentHashMap<>();
+  private final Map<String, Counter> cityRequests = new ConcurrentHashMap<>();
+  private final AtomicInteger cityTags = new AtomicInteger();
+  private final Counter otherCityRequests;
+  private final DistributionSummary upstreamBytes;
+
+  public ForecastMetrics(
+      MeterRegistry registry,
+      @Value("${api.metrics.max-city-tags}") int maxCityTags
+  ) {
+    this.registry = registry;
+    this.maxCityTags = maxCityTags;
+    this.upstreamBytes = DistributionSummary.builder("forecast.upstream.response.size")
+        .description("Size of OpenWeatherMap forecast response bodies")
+        .baseUnit("bytes")
+        .publishPercentiles(0.5, 0.95, 0.99)
+        .register(registry);
+    this.otherCityRequests = cityCounter(OTHER_CITY);
+  }
+
+  public Timer.Sample start() {
+    return Timer.start(registry);
+  }
+
+  public void stop(Timer.Sample sample, String stage) {
+    sample.stop(stages.computeIfAbsent(stage, key -> Timer.builder("forecast.stage")
+        .description("Time spent in each stage of the forecast pipeline")
+        .tag("stage", key)
+        .publishPercentiles(0.5, 0.95, 0.99)
+        .publishPercentileHistogram()
+        .register(registry)));
+  }
+
+  public void upstreamResponse(int status) {
+    upstreamResponse(String.valueOf(status));
+  }
+
+  public void upstreamIoError() {
+    upstreamResponse("io_error");
+  }
+
+  public void upstreamBytes(long bytes) {
+    upstreamBytes.record(bytes);
+  }
+
+  /**
+   * Рахує запит для міста. Власний тег отримує лише місто, прогноз якого вдалося отримати, поки
+   * таких міст менше за {@code max-city-tags}; інакше запит потрапляє в {@code other}. Так
+   * випадкові чи помилкові назви не займають місця популярних міст
+   *
+   * @param cityKey нормалізована назва міста
+   * @param loaded  чи отримано прогноз для запиту
+   */
+  public void cityRequested(String cityKey, boolean loaded) {
+    Counter counter = cityRequests.get(cityKey);
+    if (counter == null) {
+      counter = loaded ? admit(cityKey) : otherCityRequests;
+    }
+    counter.increment();
+  }
+
+  /**
+   * Атомарно видає місце тегу: {@code computeIfAbsent} реєструє лічильник міста один раз, а
+   * лічильник місць не дає перевищити ліміт при одночасних нових містах
+   */
+  private Counter admit(String cityKey) {
+    Counter counter = cityRequests.computeIfAbsent(cityKey, key ->
+        cityTags.getAndUpdate(tags -> tags < maxCityTags ? tags + 1 : tags) < maxCityTags
+            ? cityCounter(key)
+            : null);
+    return counter != null ? counter : otherCityRequests;
+  }
+
+  private Counter cityCounter(String city) {
+    return Counter.builder("forecast.requests")
+        .description("Forecast requests per city")
+        .tag("city", city)
+        .register(registry);
+  }
+
+  private void upstreamResponse(String status) {
+    upstreamResponses.computeIfAbsent(status, key -> Counter.builder("forecast.upstream.responses")
+        .description("OpenWeatherMap responses by status code")
+        .tag("status", key)
+        .register(registry)).increment();
+  }
+}
@@ -0,0 +1,40 @@
+package com.weather.api.model;
+
+import com.weather.api.exception.BadRequestException;
+import java.time.Duration;
+import java.time.format.DateTimeParseException;
+import org.springframework.boot.convert.DurationStyle;
+
+/**
+ * Розмір вікна агрегації прогнозу. Найменше вікно — 3 години, тобто вихідні періоди
+ * OpenWeatherMap; більші вікна мають бути кратні 3 годинам і ділити добу, щоб межі вікон
+ * припадали на межі періодів і на початок доби
+ *
+ * @param size тривалість вікна
+ */
+public record AggregationWindow(Duration size) {
+
+  public static final AggregationWindow RAW = new AggregationWindow(Duration.ofHours(3));
+  public static final AggregationWindow DAY = new AggregationWindow(Duration.ofDays(1));
+
+  /**
+   * @param value тривалість, напр. {@code 3h}, {@code 12h}, {@code 1d} або {@code PT6H}
+   * @throws BadRequestException якщо значення не є допустимим вікном
+   */
+  public static AggregationWindow parse(String value) {
+    Duration size;
+    try {
+      size = DurationStyle.detectAndParse(value.trim());
+    } catch (IllegalArgumentException | DateTimeParseException e) {
+      throw new BadRequestException("Некоректне вікно агрегації: " + value);
+    }
+
+    long seconds = size.toSeconds();
+    long raw = RAW.size().toSeconds();
+    if (seconds < raw || seconds % raw != 0 || DAY.size().toSeconds() % seconds != 0) {
+      throw new BadRequestException(
+          "Вікно агрегації має бути кратним 3 годинам і ділити добу: " + value);
+    }
+    return new AggregationWindow(size);
+  }
+}
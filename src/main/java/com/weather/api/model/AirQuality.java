@@ -0,0 +1,19 @@
+package com.weather.api.model;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Якість повітря — відповідь {@code /data/2.5/air_pollution} OpenWeatherMap
+ *
+ * @param measuredAt час вимірювання за часовим поясом сервера
+ * @param index      індекс якості повітря від 1 (добра) до 5 (дуже погана)
+ * @param components концентрації забруднювачів, мкг/м³, напр. {@code pm2_5}, {@code no2}
+ */
+public record AirQuality(
+    LocalDateTime measuredAt,
+    int index,
+    Map<String, Double> components
+) {
+
+}
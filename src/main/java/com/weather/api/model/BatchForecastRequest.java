@@ -0,0 +1,10 @@
+package com.weather.api.model;
+
+import java.util.List;
+
+/**
+ * @param cities назви міст, дублікати (з точністю до регістру та пробілів) об'єднуються
+ */
+public record BatchForecastRequest(List<String> cities) {
+
+}
@@ -0,0 +1,10 @@
+package com.weather.api.model;
+
+import java.util.Map;
+
+/**
+ * @param results результати по містах у порядку запиту, ключ — назва міста як у запиті
+ */
+public record BatchForecastResponse(Map<String, BatchForecastResult> results) {
+
+}
@@ -0,0 +1,32 @@
+package com.weather.api.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.weather.api.cache.ForecastEntry;
+import java.util.List;
+
+/**
+ * Результат для одного міста з пакетного запиту: або прогноз, або опис помилки
+ *
+ * @param status    HTTP статус, який отримав би окремий запит для цього міста
+ * @param forecasts прогноз по днях, якщо місто знайдено
+ * @param stale     {@code true}, якщо зовнішнє API недоступне і віддано останні відомі дані
+ * @param error     короткий опис статусу помилки, наприклад: "Not Found"
+ * @param message   контекстно-залежне повідомлення про помилку
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BatchForecastResult(
+    int status,
+    List<Forecast> forecasts,
+    Boolean stale,
+    String error,
+    String message
+) {
+
+  public static BatchForecastResult ok(ForecastEntry entry) {
+    return new BatchForecastResult(200, entry.forecasts(), entry.stale() ? true : null, null, null);
+  }
+
+  public static BatchForecastResult error(int status, String error, String message) {
+    return new BatchForecastResult(status, null, null, error, message);
+  }
+}
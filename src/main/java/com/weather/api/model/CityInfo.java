@@ -0,0 +1,14 @@
+package com.weather.api.model;
+
+/**
+ * Місто з довідника OpenWeatherMap
+ *
+ * @param id      ідентифікатор міста в OpenWeatherMap
+ * @param name    назва міста
+ * @param country код країни ISO 3166
+ * @param lat     широта
+ * @param lon     довгота
+ */
+public record CityInfo(long id, String name, String country, double lat, double lon) {
+
+}
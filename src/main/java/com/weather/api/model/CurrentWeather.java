@@ -0,0 +1,32 @@
+package com.weather.api.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Поточна погода — відповідь {@code /data/2.5/weather} OpenWeatherMap, завжди в метричній системі
+ *
+ * @param city        місто або найближча до координат точка, для якої OpenWeatherMap має дані
+ * @param observedAt  час вимірювання за часовим поясом сервера
+ * @param temperature температура
+ * @param feelsLike   температура, як її відчуває людина
+ * @param pressure    атмосферний тиск, гПа
+ * @param humidity    вологість, %
+ * @param visibility  видимість, м
+ * @param cloudiness  хмарність, %
+ * @param weather     стан погоди
+ * @param wind        вітер
+ */
+public record CurrentWeather(
+    CityInfo city,
+    LocalDateTime observedAt,
+    Double temperature,
+    Double feelsLike,
+    Double pressure,
+    Double humidity,
+    Double visibility,
+    Double cloudiness,
+    Weather weather,
+    Wind wind
+) {
+
+}
@@ -0,0 +1,27 @@
+package com.weather.api.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Зведена відповідь для сторінки погоди: поточна погода, прогноз на п'ять днів і якість повітря
+ *
+ * @param city       місто з довідника або з відповіді поточної погоди, якщо відоме
+ * @param current    поточна погода
+ * @param forecast   прогноз по днях
+ * @param airQuality якість повітря
+ * @param maxAge     скільки відповідь залишається свіжою — найменше серед частин; нуль, якщо
+ *                   якась частина віддана з помилкою або застарілою
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record Dashboard(
+    CityInfo city,
+    DashboardPart<CurrentWeather> current,
+    DashboardPart<List<Forecast>> forecast,
+    DashboardPart<AirQuality> airQuality,
+    @JsonIgnore Duration maxAge
+) {
+
+}
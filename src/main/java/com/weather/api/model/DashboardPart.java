@@ -0,0 +1,43 @@
+package com.weather.api.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Частина зведеної відповіді {@link Dashboard}: або дані, або опис помилки. Помилка однієї
+ * частини не впливає на інші
+ *
+ * @param status  HTTP статус, який отримав би окремий запит цієї частини; {@code 504}, якщо
+ *                частина не вклалася у свій тайм-аут
+ * @param data    дані частини
+ * @param stale   {@code true}, якщо віддано останні відомі дані замість невдалого запиту
+ * @param age     вік останніх відомих даних у секундах
+ * @param error   короткий опис статусу помилки, наприклад: "Gateway Timeout"
+ * @param message контекстно-залежне повідомлення про помилку
+ * @param <T>     тип даних
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record DashboardPart<T>(
+    int status,
+    T data,
+    Boolean stale,
+    Long age,
+    String error,
+    String message
+) {
+
+  public static <T> DashboardPart<T> ok(T data) {
+    return new DashboardPart<>(200, data, null, null, null, null);
+  }
+
+  public static <T> DashboardPart<T> stale(T data, long age) {
+    return new DashboardPart<>(200, data, true, age, null, null);
+  }
+
+  public static <T> DashboardPart<T> error(int status, String error, String message) {
+    return new DashboardPart<>(status, null, null, null, error, message);
+  }
+
+  public boolean failed() {
+    return data == null;
+  }
+}
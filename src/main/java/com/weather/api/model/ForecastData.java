@@ -0,0 +1,17 @@
+package com.weather.api.model;
+
+import java.util.List;
+
+/**
+ * Результат одного запиту прогнозу до OpenWeatherMap
+ *
+ * @param forecasts прогноз, агрегований по днях
+ * @param periods   вихідні 3-годинні періоди в порядку часу
+ */
+public record ForecastData(List<Forecast> forecasts, List<ForecastPoint> periods) {
+
+  public ForecastData {
+    forecasts = List.copyOf(forecasts);
+    periods = List.copyOf(periods);
+  }
+}
@@ -0,0 +1,40 @@
+package com.weather.api.model;
+
+import java.util.List;
+
+/**
+ * Один 3-годинний запис прогнозу OpenWeatherMap у метричній системі — вихідні дані, з яких
+ * агрегуються дні та інші вікна
+ *
+ * @param dt             початок періоду, секунди від епохи
+ * @param temperature    температура, °C
+ * @param feelsLike      температура за відчуттями, °C
+ * @param minTemperature мінімальна температура, °C
+ * @param maxTemperature максимальна температура, °C
+ * @param pressure       тиск, гПа
+ * @param humidity       вологість, %
+ * @param visibility     видимість, м
+ * @param windSpeed      швидкість вітру, м/с
+ * @param windGust       пориви вітру, м/с
+ * @param windDeg        напрямок вітру, градуси
+ * @param weathers       стани погоди періоду
+ */
+public record ForecastPoint(
+    long dt,
+    double temperature,
+    double feelsLike,
+    double minTemperature,
+    double maxTemperature,
+    double pressure,
+    double humidity,
+    double visibility,
+    double windSpeed,
+    double windGust,
+    double windDeg,
+    List<Weather> weathers
+) {
+
+  public ForecastPoint {
+    weathers = List.copyOf(weathers);
+  }
+}
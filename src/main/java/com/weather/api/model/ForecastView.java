@@ -0,0 +1,57 @@
+package com.weather.api.model;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Представлення прогнозу у відповіді. Стандартне представлення — JSON у метричній системі з усіма
+ * полями — віддається з кешу як є, решта будуються з того самого запису кешу
+ *
+ * @param units    система одиниць
+ * @param format   формат тіла відповіді
+ * @param fields   поля кожного дня, які потрібно віддати (можна вкладені: {@code wind.speed}),
+ *                 порожній список — усі поля
+ * @param envelope {@code true} — об'єкт {@code {"city": ..., "forecasts": [...]}}, де дані міста
+ *                 передаються один раз, а не в кожному дні
+ */
+public record ForecastView(
+    Units units,
+    ResponseFormat format,
+    List<String> fields,
+    boolean envelope
+) {
+
+  public ForecastView {
+    fields = List.copyOf(fields);
+  }
+
+  public boolean isDefault() {
+    return units == Units.METRIC && format == ResponseFormat.JSON && fields.isEmpty()
+        && !envelope;
+  }
+
+  /**
+   * @return ключ представлення для кешу та ETag, напр. {@code imperial;cbor;date,wind.speed;env}
+   */
+  public String key() {
+    return units.key() + ";" + format.name().toLowerCase(Locale.ROOT) + ";"
+        + String.join(",", fields) + (envelope ? ";env" : "");
+  }
+
+  /**
+   * Розбирає параметр {@code fields=date,temperature,wind.speed}. Поля впорядковуються, щоб
+   * однакові набори мали один ключ
+   */
+  public static List<String> parseFields(String fields) {
+    if (fields == null) {
+      return List.of();
+    }
+    return Arrays.stream(fields.split(","))
+        .map(String::trim)
+        .filter(field -> !field.isEmpty())
+        .distinct()
+        .sorted()
+        .toList();
+  }
+}
@@ -0,0 +1,76 @@
+package com.weather.api.model;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeTypeUtils;
+
+/**
+ * Формат тіла відповіді з прогнозом, обирається за заголовком {@code Accept}
+ */
+public enum ResponseFormat {
+
+  JSON(MediaType.APPLICATION_JSON),
+
+  /**
+   * RFC 8949, бінарний аналог JSON
+   */
+  CBOR(MediaType.APPLICATION_CBOR),
+
+  /**
+   * Бінарний формат Jackson
+   */
+  SMILE(new MediaType("application", "x-jackson-smile"));
+
+  public static final String CBOR_VALUE = "application/cbor";
+  public static final String SMILE_VALUE = "application/x-jackson-smile";
+
+  private final MediaType mediaType;
+
+  ResponseFormat(MediaType mediaType) {
+    this.mediaType = mediaType;
+  }
+
+  public MediaType mediaType() {
+    return mediaType;
+  }
+
+  /**
+   * Перший за пріоритетом клієнта підтримуваний формат, за замовчуванням — JSON. Типи з
+   * {@code q=0} клієнт відхиляє: вони не обираються, а відповідні формати не підходять і під
+   * ширші типи — для {@code application/cbor;q=0} CBOR не обирається й через {@code application/*}
+   *
+   * @param accept значення заголовка {@code Accept}, може бути {@code null}
+   */
+  public static ResponseFormat negotiate(String accept) {
+    if (accept == null || accept.isBlank()) {
+      return JSON;
+    }
+
+    List<MediaType> accepted = MediaType.parseMediaTypes(accept);
+    Set<ResponseFormat> rejected = EnumSet.noneOf(ResponseFormat.class);
+    for (MediaType type : accepted) {
+      if (type.getQualityValue() == 0) {
+        for (ResponseFormat format : values()) {
+          if (type.includes(format.mediaType)) {
+            rejected.add(format);
+          }
+        }
+      }
+    }
+
+    MimeTypeUtils.sortBySpecificity(accepted);
+    for (MediaType type : accepted) {
+      if (type.getQualityValue() == 0) {
+        continue;
+      }
+      for (ResponseFormat format : values()) {
+        if (!rejected.contains(format) && type.includes(format.mediaType)) {
+          return format;
+        }
+      }
+    }
+    return JSON;
+  }
+}
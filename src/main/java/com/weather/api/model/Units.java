@@ -0,0 +1,45 @@
+package com.weather.api.model;
+
+import com.weather.api.exception.BadRequestException;
+import java.util.Locale;
+
+/**
+ * Система одиниць відповіді, як параметр {@code units} OpenWeatherMap. Видимість в усіх системах
+ * — у метрах, як і в OpenWeatherMap
+ */
+public enum Units {
+
+  /**
+   * °C, м/с
+   */
+  METRIC,
+
+  /**
+   * °F, милі/год
+   */
+  IMPERIAL,
+
+  /**
+   * K, м/с
+   */
+  STANDARD;
+
+  /**
+   * @param value назва системи без урахування регістру
+   * @throws BadRequestException якщо система невідома
+   */
+  public static Units parse(String value) {
+    try {
+      return valueOf(value.trim().toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw new BadRequestException("Невідома система одиниць: " + value);
+    }
+  }
+
+  /**
+   * @return назва для параметрів та ключів, напр. {@code imperial}
+   */
+  public String key() {
+    return name().toLowerCase(Locale.ROOT);
+  }
+}
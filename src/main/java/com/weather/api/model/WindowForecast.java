@@ -0,0 +1,21 @@
+package com.weather.api.model;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import java.time.LocalDateTime;
+
+/**
+ * Прогноз, агрегований за вікно {@link AggregationWindow}, — рядок потокової відповіді
+ *
+ * @param start    початок вікна за часовим поясом сервера, включно
+ * @param end      кінець вікна, не включно
+ * @param forecast середні значення за вікно; {@code date} — дата початку вікна
+ */
+@JsonPropertyOrder({"start", "end"})
+public record WindowForecast(
+    LocalDateTime start,
+    LocalDateTime end,
+    @JsonUnwrapped Forecast forecast
+) {
+
+}
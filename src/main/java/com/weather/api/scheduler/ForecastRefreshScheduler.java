@@ -0,0 +1,84 @@
+package com.weather.api.scheduler;
+
+import com.weather.api.cache.CityPopularity;
+import com.weather.api.cache.ForecastCache;
+import com.weather.api.cache.ForecastEntry;
+import com.weather.api.service.contract.ForecastService;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+/**
+ * Завчасно оновлює прогнози для найпопулярніших міст, щоб вони не отримували промах кешу. Кожні
+ * {@code interval} серед {@code top-n} міст за {@link CityPopularity} вибираються ті, чий запис
+ * втратить свіжість протягом {@code ahead}. Оновлень за один прохід не більше {@code budget}, і
+ * вони розносяться у часі випадковою затримкою до {@code jitter}
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "api.refresh.enabled", havingValue = "true", matchIfMissing = true)
+public class ForecastRefreshScheduler {
+
+  private final ForecastService forecastService;
+  private final ForecastCache forecastCache;
+  private final CityPopularity popularity;
+  private final TaskScheduler taskScheduler;
+  private final int topN;
+  private final int budget;
+  private final Duration ahead;
+  private final Duration jitter;
+
+  public ForecastRefreshScheduler(
+      ForecastService forecastService,
+      ForecastCache forecastCache,
+      CityPopularity popularity,
+      TaskScheduler taskScheduler,
+      @Value("${api.refresh.top-n}") int topN,
+      @Value("${api.refresh.budget}") int budget,
+      @Value("${api.refresh.ahead}") Duration ahead,
+      @Value("${api.refresh.jitter}") Duration jitter,
+      @Value("${api.refresh.interval}") Duration interval
+  ) {
+    this.forecastService = forecastService;
+    this.forecastCache = forecastCache;
+    this.popularity = popularity;
+    this.taskScheduler = taskScheduler;
+    this.topN = topN;
+    this.budget = budget;
+    this.ahead = ahead;
+    this.jitter = jitter;
+    taskScheduler.scheduleWithFixedDelay(
+        this::refreshHotCities, Instant.now().plus(interval), interval);
+  }
+
+  void refreshHotCities() {
+    Instant now = Instant.now();
+    Instant horizon = now.plus(ahead);
+
+    List<String> due = forecastCache.keys().stream()
+        .filter(key -> popularity.estimate(key) > 0)
+        .sorted(Comparator.comparingInt(popularity::estimate).reversed())
+        .limit(topN)
+        .filter(key -> {
+          ForecastEntry entry = forecastCache.peek(key);
+          return entry != null && entry.expiresAt().isBefore(horizon);
+        })
+        .limit(budget)
+        .toList();
+
+    for (String key : due) {
+      long delay = jitter.isZero() ? 0 : ThreadLocalRandom.current().nextLong(jitter.toMillis());
+      taskScheduler.schedule(() -> forecastService.refresh(key), now.plusMillis(delay));
+    }
+    if (!due.isEmpty()) {
+      log.debug("Scheduled proactive refresh for {} cities", due.size());
+    }
+  }
+}
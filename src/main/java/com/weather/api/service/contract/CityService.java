@@ -0,0 +1,34 @@
+package com.weather.api.service.contract;
+
+import com.weather.api.model.CityInfo;
+import java.util.List;
+import java.util.Optional;
+
+public interface CityService {
+
+  /**
+   * @param query назва міста, можливо з кодом країни: {@code London,GB}
+   * @return місто, якщо назва однозначно відповідає одному місту довідника
+   */
+  Optional<CityInfo> resolve(String query);
+
+  /**
+   * @return {@code true}, якщо місто точно невідоме і запит до зовнішнього API не потрібен
+   */
+  boolean isRejected(String query);
+
+  /**
+   * Запам'ятовує назву, яку зовнішнє API не знайшло
+   */
+  void markUnknown(String query);
+
+  /**
+   * @return схожі назви міст з довідника, найближчі першими
+   */
+  List<String> suggest(String query);
+
+  /**
+   * @return міста, назва яких починається з {@code prefix}
+   */
+  List<CityInfo> complete(String prefix, int limit);
+}
@@ -0,0 +1,17 @@
+package com.weather.api.service.contract;
+
+import com.weather.api.model.Dashboard;
+
+public interface DashboardService {
+
+  /**
+   * Поточна погода, прогноз і якість повітря для міста, отримані паралельно
+   */
+  Dashboard searchByCityName(String cityName);
+
+  /**
+   * Зведена відповідь для комірки сітки, що містить точку, як у {@link #searchByCityName}
+   */
+  Dashboard searchByCoordinates(double lat, double lon);
+
+}
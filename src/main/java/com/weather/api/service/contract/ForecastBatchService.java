@@ -0,0 +1,10 @@
+package com.weather.api.service.contract;
+
+import com.weather.api.model.BatchForecastResponse;
+import java.util.List;
+
+public interface ForecastBatchService {
+
+  BatchForecastResponse searchByCityNames(List<String> cityNames);
+
+}
@@ -1,10 +1,37 @@
 package com.weather.api.service.contract;
 
-import com.weather.api.model.Forecast;
-import java.util.List;
+import com.weather.api.cache.ForecastBody;
+import com.weather.api.cache.ForecastEntry;
+import com.weather.api.model.AggregationWindow;
+import com.weather.api.model.ForecastView;
+import com.weather.api.model.Units;
+import java.io.IOException;
+import java.io.OutputStream;
 
 public interface ForecastService {
 
-  List<Forecast> searchByCityName(String cityName);
+  ForecastEntry searchByCityName(String cityName);
+
+  ForecastEntry searchByCityName(String cityName, RequestPriority priority);
+
+  /**
+   * Прогноз для комірки сітки, що містить точку; близькі координати мають спільний запис кешу
+   */
+  ForecastEntry searchByCoordinates(double lat, double lon);
+
+  /**
+   * Тіло відповіді в потрібному представленні. Дані завантажуються та кешуються лише в
+   * метричній системі, а інші одиниці, поля та формати будуються з того самого запису
+   */
+  ForecastBody render(ForecastEntry entry, ForecastView view);
+
+  /**
+   * Пише прогноз, агрегований у вікна {@code window}, потоком NDJSON — по рядку на вікно, щойно
+   * воно підраховане. Вікна будуються з 3-годинних періодів того самого запису кешу
+   */
+  void writeWindows(ForecastEntry entry, AggregationWindow window, Units units, OutputStream out)
+      throws IOException;
+
+  void refresh(String cityKey);
 
 }
@@ -0,0 +1,23 @@
+package com.weather.api.service.contract;
+
+/**
+ * Пріоритет виклику зовнішнього API, коли ліміт запитів вичерпано: раніше обслуговуються
+ * значення, оголошені раніше
+ */
+public enum RequestPriority {
+
+  /**
+   * Користувач чекає на відповідь
+   */
+  INTERACTIVE,
+
+  /**
+   * Частина пакетного запиту
+   */
+  BATCH,
+
+  /**
+   * Фонове оновлення кешу
+   */
+  BACKGROUND
+}
@@ -0,0 +1,288 @@
+package com.weather.api.service.impl;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.weather.api.model.CityInfo;
+import com.weather.api.service.contract.CityService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.io.IOException;
+import java.io.InputStream;
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+/**
+ * Довідник міст OpenWeatherMap у пам'яті, завантажений при старті з {@code api.cities.list}
+ * (формат {@code city.list.json}, можна стиснутий gzip). Назви нормалізуються — регістр,
+ * діакритика, кирилиця транслітерується — і зберігаються відсортованим масивом: точний пошук і
+ * пошук за префіксом виконуються бінарним пошуком.
+ * <p>
+ * Назви, яких не знайшло зовнішнє API, потрапляють в обмежений кеш невідомих міст
+ * ({@code negative-ttl}) разом з підказками для них, і повторні запити з ними відхиляються без
+ * виклику API та без повторного пошуку схожих назв. Якщо {@code reject-unknown} увімкнено (має
+ * сенс лише з повним довідником), без виклику API відхиляються і всі назви, відсутні в довіднику
+ */
+@Slf4j
+@Service
+public class CityServiceImpl implements CityService {
+
+  private static final int MAX_SUGGESTIONS = 5;
+  private static final int MAX_DISTANCE = 2;
+  private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+  private static final Pattern APOSTROPHES = Pattern.compile("['’ʼ`]");
+  private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+  private static final String[] CYRILLIC = {
+      "a", "b", "v", "h", "d", "e", "zh", "z", "y", "i", "k", "l", "m", "n", "o", "p",
+      "r", "s", "t", "u", "f", "kh", "ts", "ch", "sh", "shch", "", "y", "", "e", "iu", "ia"
+  };
+
+  private final String[] names;
+  private final CityInfo[] cities;
+  private final Cache<String, List<String>> unknown;
+  private final boolean rejectUnknown;
+
+  public CityServiceImpl(
+      ObjectMapper objectMapper,
+      MeterRegistry meterRegistry,
+      @Value("${api.cities.list}") Resource list,
+      @Value("${api.cities.reject-unknown}") boolean rejectUnknown,
+      @Value("${api.cities.negative-max-size}") long negativeMaxSize,
+      @Value("${api.cities.negative-ttl}") Duration negativeTtl
+  ) {
+    List<Map.Entry<String, CityInfo>> entries = read(objectMapper, list);
+    // Сортування стабільне: серед однакових назв зберігається порядок довідника
+    entries.sort(Map.Entry.comparingByKey());
+    this.names = entries.stream().map(Map.Entry::getKey).toArray(String[]::new);
+    this.cities = entries.stream().map(Map.Entry::getValue).toArray(CityInfo[]::new);
+    this.rejectUnknown = rejectUnknown;
+    this.unknown = Caffeine.newBuilder()
+        .maximumSize(negativeMaxSize)
+        .expireAfterWrite(negativeTtl)
+        .recordStats()
+        .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, unknown, "unknown-cities");
+  }
+
+  @Override
+  public Optional<CityInfo> resolve(String query) {
+    List<CityInfo> matches = matches(Query.parse(query));
+    long ids = matches.stream().mapToLong(CityInfo::id).distinct().count();
+    return ids == 1 ? Optional.of(matches.get(0)) : Optional.empty();
+  }
+
+  @Override
+  public boolean isRejected(String query) {
+    Query parsed = Query.parse(query);
+    return unknown.getIfPresent(parsed.key()) != null
+        || rejectUnknown && matches(parsed).isEmpty();
+  }
+
+  @Override
+  public void markUnknown(String query) {
+    Query parsed = Query.parse(query);
+    unknown.put(parsed.key(), suggest(parsed));
+  }
+
+  @Override
+  public List<String> suggest(String query) {
+    Query parsed = Query.parse(query);
+    List<String> known = unknown.getIfPresent(parsed.key());
+    return known != null ? known : suggest(parsed);
+  }
+
+  private List<String> suggest(Query query) {
+    String name = query.name();
+    if (name.isEmpty()) {
+      return List.of();
+    }
+
+    // Кандидати — назви на ту саму літеру, що й запит
+    int from = lowerBound(name.substring(0, 1));
+    int to = lowerBound(String.valueOf((char) (name.charAt(0) + 1)));
+    List<int[]> found = new ArrayList<>();
+    for (int i = from; i < to; i++) {
+      if (Math.abs(names[i].length() - name.length()) <= MAX_DISTANCE) {
+        int distance = distance(name, names[i]);
+        if (distance <= MAX_DISTANCE) {
+          found.add(new int[]{distance, i});
+        }
+      }
+    }
+    found.sort(Comparator.comparingInt((int[] match) -> match[0]).thenComparingInt(m -> m[1]));
+
+    Set<String> suggestions = new LinkedHashSet<>();
+    for (int[] match : found) {
+      CityInfo city = cities[match[1]];
+      suggestions.add(city.name() + "," + city.country());
+      if (suggestions.size() == MAX_SUGGESTIONS) {
+        break;
+      }
+    }
+    return List.copyOf(suggestions);
+  }
+
+  @Override
+  public List<CityInfo> complete(String prefix, int limit) {
+    String normalized = normalize(prefix);
+    if (normalized.isEmpty()) {
+      return List.of();
+    }
+
+    List<CityInfo> result = new ArrayList<>();
+    for (int i = lowerBound(normalized);
+        i < names.length && names[i].startsWith(normalized) && result.size() < limit; i++) {
+      result.add(cities[i]);
+    }
+    return result;
+  }
+
+  /**
+   * Нормалізує назву міста для порівняння: без регістру та діакритики, кирилиця — латиницею за
+   * українською транслітерацією, без апострофів, інші розділювачі — один пробіл. Літера
+   * {@code й} замінюється до розкладу NFKD: інакше вона втрачає бреве, стає {@code и} і
+   * транслітерується як {@code y} ({@code Хмельницький} не збігся б з {@code Khmelnytskyi})
+   */
+  static String normalize(String name) {
+    String lower = name.toLowerCase(Locale.ROOT).replace('й', 'i');
+    String decomposed = MARKS.matcher(Normalizer.normalize(lower, Normalizer.Form.NFKD))
+        .replaceAll("")
+        .toLowerCase(Locale.ROOT);
+
+    StringBuilder latin = new StringBuilder(decomposed.length() + 8);
+    for (int i = 0; i < decomposed.length(); i++) {
+      char c = decomposed.charAt(i);
+      if (c >= 'а' && c <= 'я') {
+        latin.append(CYRILLIC[c - 'а']);
+      } else if (c == 'є') {
+        latin.append("ie");
+      } else if (c == 'і') {
+        latin.append('i');
+      } else if (c == 'ґ') {
+        latin.append('g');
+      } else {
+        latin.append(c);
+      }
+    }
+    return SEPARATORS.matcher(APOSTROPHES.matcher(latin).replaceAll("")).replaceAll(" ").trim();
+  }
+
+  private List<CityInfo> matches(Query query) {
+    List<CityInfo> matches = new ArrayList<>();
+    for (int i = lowerBound(query.name()); i < names.length && names[i].equals(query.name());
+        i++) {
+      if (query.country() == null || query.country().equalsIgnoreCase(cities[i].country())) {
+        matches.add(cities[i]);
+      }
+    }
+    return matches;
+  }
+
+  private int lowerBound(String key) {
+    int index = Arrays.binarySearch(names, key);
+    if (index < 0) {
+      return -index - 1;
+    }
+    while (index > 0 && names[index - 1].equals(key)) {
+      index--;
+    }
+    return index;
+  }
+
+  /**
+   * Відстань Левенштейна, обмежена {@link #MAX_DISTANCE}: більші значення не уточнюються
+   */
+  private static int distance(String a, String b) {
+    int[] previous = new int[b.length() + 1];
+    int[] current = new int[b.length() + 1];
+    for (int j = 0; j <= b.length(); j++) {
+      previous[j] = j;
+    }
+
+    for (int i = 1; i <= a.length(); i++) {
+      current[0] = i;
+      int rowMin = current[0];
+      for (int j = 1; j <= b.length(); j++) {
+        int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+        current[j] = Math.min(Math.min(current[j - 1], previous[j]) + 1, previous[j - 1] + cost);
+        rowMin = Math.min(rowMin, current[j]);
+      }
+      if (rowMin > MAX_DISTANCE) {
+        return rowMin;
+      }
+      int[] swap = previous;
+      previous = current;
+      current = swap;
+    }
+    return previous[b.length()];
+  }
+
+  private static List<Map.Entry<String, CityInfo>> read(ObjectMapper objectMapper,
+      Resource list) {
+    List<Map.Entry<String, CityInfo>> entries = new ArrayList<>();
+    long start = System.nanoTime();
+    try (InputStream raw = list.getInputStream();
+        InputStream in = list.getFilename() != null && list.getFilename().endsWith(".gz")
+            ? new GZIPInputStream(raw) : raw;
+        MappingIterator<CityRecord> records = objectMapper.readerFor(CityRecord.class)
+            .readValues(in)) {
+      while (records.hasNext()) {
+        CityRecord record = records.next();
+        if (record.name() == null || record.coord() == null) {
+          continue;
+        }
+        entries.add(Map.entry(normalize(record.name()), new CityInfo(record.id(), record.name(),
+            record.country(), record.coord().lat(), record.coord().lon())));
+      }
+    } catch (IOException | RuntimeException e) {
+      log.warn("Cannot read city list {}: {}", list, e.getMessage());
+    }
+    log.info("Loaded {} cities from {} in {} ms", entries.size(), list,
+        Duration.ofNanos(System.nanoTime() - start).toMillis());
+    return entries;
+  }
+
+  /**
+   * Запит {@code назва[,регіон][,код країни]}
+   */
+  private record Query(String name, String country) {
+
+    static Query parse(String query) {
+      String[] parts = query.split(",");
+      String country = parts.length > 1 ? parts[parts.length - 1].trim() : null;
+      return new Query(normalize(parts.length > 0 ? parts[0] : ""),
+          country == null || country.isEmpty() ? null : country.toUpperCase(Locale.ROOT));
+    }
+
+    String key() {
+      return country == null ? name : name + "," + country;
+    }
+  }
+
+  @JsonIgnoreProperties(ignoreUnknown = true)
+  private record CityRecord(long id, String name, String country, Coord coord) {
+
+  }
+
+  @JsonIgnoreProperties(ignoreUnknown = true)
+  private record Coord(double lat, double lon) {
+
+  }
+}
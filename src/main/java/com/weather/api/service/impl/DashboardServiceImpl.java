@@ -0,0 +1,374 @@
+package com.weather.api.service.impl;
+
+import static org.springframework.http.HttpStatus.GATEWAY_TIMEOUT;
+import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.weather.api.cache.ForecastCache;
+import com.weather.api.cache.ForecastEntry;
+import com.weather.api.cache.GeoCell;
+import com.weather.api.cache.GeoGrid;
+import com.weather.api.cache.PartCache;
+import com.weather.api.exception.ResourceNotFoundException;
+import com.weather.api.exception.ServiceUnavailableException;
+import com.weather.api.model.AirQuality;
+import com.weather.api.model.CityInfo;
+import com.weather.api.model.CurrentWeather;
+import com.weather.api.model.Dashboard;
+import com.weather.api.model.DashboardPart;
+import com.weather.api.model.Forecast;
+import com.weather.api.service.contract.CityService;
+import com.weather.api.service.contract.DashboardService;
+import com.weather.api.service.contract.ForecastService;
+import com.weather.api.service.contract.RequestPriority;
+import com.weather.api.shared.exception.ResourceException;
+import com.weather.api.shared.exception.ResourceStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClient;
+
+/**
+ * Зведена відповідь для сторінки погоди. Поточна погода ({@code /data/2.5/weather}), прогноз
+ * ({@link ForecastService}, з його кешем) і якість повітря ({@code /data/2.5/air_pollution})
+ * запитуються паралельно, тож час відповіді — найдовша з частин, а не їх сума.
+ * <p>
+ * Кожна частина має власний кеш ({@link PartCache}) з окремим {@code ttl} та власний тайм-аут,
+ * що рахується від початку запиту. Якщо частина не вклалася в тайм-аут або завершилася помилкою
+ * 5xx, замість неї віддаються останні відомі дані з позначкою {@code stale}, а за їх відсутності —
+ * опис помилки; інші частини від цього не залежать. Запит, що не вклався в тайм-аут, не
+ * скасовується: його результат потрапить у кеш для наступних запитів. Якщо місто не знайдено
+ * або не вдалася жодна частина, повертається звичайна помилка.
+ * <p>
+ * Якість повітря запитується за координатами: для міст з довідника вони відомі одразу, а для
+ * інших беруться з відповіді поточної погоди. Нові виклики OpenWeatherMap проходять через той
+ * самий {@link OpenWeatherMapClient}, що й прогноз, — зі спільними лімітами та circuit breaker.
+ * <p>
+ * Частини виконуються у віртуальних потоках: вони майже весь час чекають на мережу, а кількість
+ * одночасних викликів зовнішнього API вже обмежує {@link UpstreamConcurrencyLimiter}. Спільний
+ * пул {@code applicationTaskExecutor} для цього замалий — три частини на запит швидко займають
+ * усі його потоки, і запити чекають у черзі. Результати частин рахуються в метриці
+ * {@code dashboard.parts{part,outcome}}
+ */
+@Slf4j
+@Service
+public class DashboardServiceImpl implements DashboardService, DisposableBean {
+
+  private static final String WEATHER_URI = "/data/2.5/weather?q={city}&units=metric";
+  private static final String WEATHER_ID_URI = "/data/2.5/weather?id={id}&units=metric";
+  private static final String WEATHER_COORDINATES_URI =
+      "/data/2.5/weather?lat={lat}&lon={lon}&units=metric";
+  private static final String AIR_POLLUTION_URI = "/data/2.5/air_pollution?lat={lat}&lon={lon}";
+  private static final String PART_CURRENT = "current";
+  private static final String PART_FORECAST = "forecast";
+  private static final String PART_AIR_QUALITY = "air_quality";
+
+  private final OpenWeatherMapClient client;
+  private final ForecastService forecastService;
+  private final ForecastCache forecastCache;
+  private final CityService cityService;
+  private final GeoGrid geoGrid;
+  private final ObjectMapper objectMapper;
+  private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+  private final MeterRegistry meterRegistry;
+  private final DashboardTreeMapper mapper = new DashboardTreeMapper();
+  private final Map<String, Counter> outcomes = new ConcurrentHashMap<>();
+  private final PartCache<CurrentWeather> currentCache;
+  private final PartCache<AirQuality> airQualityCache;
+  private final Duration currentTimeout;
+  private final Duration forecastTimeout;
+  private final Duration airQualityTimeout;
+
+  public DashboardServiceImpl(
+      OpenWeatherMapClient client,
+      ForecastService forecastService,
+      ForecastCache forecastCache,
+      CityService cityService,
+      GeoGrid geoGrid,
+      ObjectMapper objectMapper,
+      MeterRegistry meterRegistry,
+      @Value("${api.upstream.coalesce-timeout}") Duration coalesceTimeout,
+      @Value("${api.dashboard.max-size}") long maxSize,
+      @Value("${api.dashboard.fallback-ttl}") Duration fallbackTtl,
+      @Value("${api.dashboard.current.ttl}") Duration currentTtl,
+      @Value("${api.dashboard.current.timeout}") Duration currentTimeout,
+      @Value("${api.dashboard.forecast.timeout}") Duration forecastTimeout,
+      @Value("${api.dashboard.air-quality.ttl}") Duration airQualityTtl,
+      @Value("${api.dashboard.air-quality.timeout}") Duration airQualityTimeout
+  ) {
+    this.client = client;
+    this.forecastService = forecastService;
+    this.forecastCache = forecastCache;
+    this.cityService = cityService;
+    this.geoGrid = geoGrid;
+    this.objectMapper = objectMapper;
+    this.meterRegistry = meterRegistry;
+    this.currentCache = new PartCache<>("dashboard-current", meterRegistry, maxSize, currentTtl,
+        fallbackTtl, coalesceTimeout);
+    this.airQualityCache = new PartCache<>("dashboard-air-quality", meterRegistry, maxSize,
+        airQualityTtl, fallbackTtl, coalesceTimeout);
+    this.currentTimeout = currentTimeout;
+    this.forecastTimeout = forecastTimeout;
+    this.airQualityTimeout = airQualityTimeout;
+  }
+
+  @Override
+  public void destroy() {
+    executor.shutdownNow();
+  }
+
+  /**
+   * Назва міста шукається в довіднику так само, як для прогнозу, тож поточна погода та прогноз
+   * мають спільні ключі кешу для всіх варіантів назви. Назви, відхилені довідником, отримують
+   * 404 без жодного виклику зовнішнього API
+   */
+  @Override
+  public Dashboard searchByCityName(String cityName) {
+    ForecastCache.checkCityName(cityName);
+    if (cityService.isRejected(cityName)) {
+      throw cityNotFound(cityName);
+    }
+
+    long start = System.nanoTime();
+    Optional<CityInfo> city = cityService.resolve(cityName);
+    String key = city
+        .map(c -> ForecastCache.cityIdKey(c.id()))
+        .orElseGet(() -> ForecastCache.key(cityName));
+
+    CompletableFuture<ForecastEntry> forecast =
+        async(() -> forecastService.searchByCityName(cityName));
+    CompletableFuture<PartCache.Entry<CurrentWeather>> current = async(() -> current(key));
+    CompletableFuture<PartCache.Entry<AirQuality>> airQuality = city
+        .map(c -> async(() -> airQuality(cell(c))))
+        .orElseGet(() -> current.thenApplyAsync(
+            entry -> airQuality(cell(entry.value().city())), executor));
+
+    Supplier<Optional<GeoCell>> airQualityCell = () -> city.map(this::cell)
+        .or(() -> currentCache.lastKnown(key).map(entry -> cell(entry.value().city())));
+    Dashboard dashboard =
+        assemble(start, key, city, airQualityCell, forecast, current, airQuality);
+    if (dashboard.forecast().status() == NOT_FOUND.value()) {
+      throw cityNotFound(cityName);
+    }
+    return dashboard;
+  }
+
+  @Override
+  public Dashboard searchByCoordinates(double lat, double lon) {
+    long start = System.nanoTime();
+    GeoCell cell = geoGrid.snap(lat, lon);
+    String key = cell.key();
+
+    CompletableFuture<ForecastEntry> forecast =
+        async(() -> forecastService.searchByCoordinates(lat, lon));
+    CompletableFuture<PartCache.Entry<CurrentWeather>> current = async(() -> current(key));
+    CompletableFuture<PartCache.Entry<AirQuality>> airQuality = async(() -> airQuality(cell));
+    return assemble(start, key, Optional.empty(), () -> Optional.of(cell),
+        forecast, current, airQuality);
+  }
+
+  /**
+   * Чекає на кожну частину до її власного тайм-ауту від {@code start} і збирає відповідь
+   *
+   * @param key            ключ кешу прогнозу та поточної погоди
+   * @param city           місто з довідника; інакше береться з відповіді поточної погоди
+   * @param airQualityCell комірка якості повітря для пошуку останніх відомих даних
+   * @throws ServiceUnavailableException якщо не вдалася жодна частина
+   */
+  private Dashboard assemble(
+      long start, String key, Optional<CityInfo> city,
+      Supplier<Optional<GeoCell>> airQualityCell,
+      CompletableFuture<ForecastEntry> forecast,
+      CompletableFuture<PartCache.Entry<CurrentWeather>> current,
+      CompletableFuture<PartCache.Entry<AirQuality>> airQuality
+  ) {
+    DashboardPart<List<Forecast>> forecastPart = await(PART_FORECAST, key,
+        forecast.thenApply(DashboardServiceImpl::forecastPart), start + forecastTimeout.toNanos(),
+        () -> Optional.ofNullable(forecastCache.peek(key)).map(entry ->
+            DashboardPart.stale(entry.forecasts(), age(entry.fetchedAt()))));
+    DashboardPart<CurrentWeather> currentPart = await(PART_CURRENT, key,
+        current.thenApply(DashboardServiceImpl::part), start + currentTimeout.toNanos(),
+        () -> currentCache.lastKnown(key).map(DashboardServiceImpl::part));
+    DashboardPart<AirQuality> airQualityPart = await(PART_AIR_QUALITY, key,
+        airQuality.thenApply(DashboardServiceImpl::part), start + airQualityTimeout.toNanos(),
+        () -> airQualityCell.get()
+            .flatMap(cell -> airQualityCache.lastKnown(cell.key()))
+            .map(DashboardServiceImpl::part));
+
+    if (forecastPart.failed() && currentPart.failed() && airQualityPart.failed()
+        && forecastPart.status() != NOT_FOUND.value()) {
+      throw new ServiceUnavailableException("Сервіс погоди тимчасово недоступний");
+    }
+
+    Instant now = Instant.now();
+    Duration maxAge = Stream.of(
+            freshness(forecastPart, forecast, entry -> entry.freshness(now)),
+            freshness(currentPart, current, entry -> entry.freshness(now)),
+            freshness(airQualityPart, airQuality, entry -> entry.freshness(now)))
+        .min(Duration::compareTo)
+        .orElse(Duration.ZERO);
+    CityInfo known = city.orElseGet(() -> currentPart.failed() ? null : currentPart.data().city());
+    return new Dashboard(known, currentPart, forecastPart, airQualityPart, maxAge);
+  }
+
+  /**
+   * Результат частини: дані, якщо вона завершилася до {@code deadline}; останні відомі дані,
+   * якщо не завершилася або завершилася помилкою 5xx; інакше — опис помилки
+   */
+  private <T> DashboardPart<T> await(
+      String part, String key, CompletableFuture<DashboardPart<T>> future, long deadline,
+      Supplier<Optional<DashboardPart<T>>> lastKnown
+  ) {
+    try {
+      DashboardPart<T> result =
+          future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+      count(part, result.stale() != null ? "stale" : "ok");
+      return result;
+    } catch (TimeoutException e) {
+      log.debug("Dashboard part '{}' for '{}' timed out", part, key);
+      return fallback(part, "timeout", lastKnown, DashboardPart.error(GATEWAY_TIMEOUT.value(),
+          GATEWAY_TIMEOUT.getReasonPhrase(), "Час очікування відповіді вичерпано"));
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof ResourceException resource) {
+        ResourceStatus status = ResourceStatus.of(resource);
+        DashboardPart<T> error =
+            DashboardPart.error(status.code(), status.reason(), resource.getMessage());
+        if (status.code() < 500) {
+          count(part, "error");
+          return error;
+        }
+        return fallback(part, "error", lastKnown, error);
+      }
+      log.error("Dashboard part '{}' failed for '{}'", part, key, e.getCause());
+      return fallback(part, "error", lastKnown, DashboardPart.error(
+          INTERNAL_SERVER_ERROR.value(), INTERNAL_SERVER_ERROR.getReasonPhrase(),
+          "An unexpected server error occurred."));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return DashboardPart.error(SERVICE_UNAVAILABLE.value(),
+          SERVICE_UNAVAILABLE.getReasonPhrase(), "Очікування відповіді перервано");
+    }
+  }
+
+  private <T> DashboardPart<T> fallback(String part, String outcome,
+      Supplier<Optional<DashboardPart<T>>> lastKnown, DashboardPart<T> error) {
+    Optional<DashboardPart<T>> known = lastKnown.get();
+    count(part, known.isPresent() ? "stale" : outcome);
+    return known.orElse(error);
+  }
+
+  private PartCache.Entry<CurrentWeather> current(String key) {
+    return currentCache.get(key, () -> fetchCurrent(key));
+  }
+
+  private PartCache.Entry<AirQuality> airQuality(GeoCell cell) {
+    return airQualityCache.get(cell.key(), () -> fetchAirQuality(cell));
+  }
+
+  private CurrentWeather fetchCurrent(String key) {
+    RestClient.RequestHeadersSpec<?> request = currentRequest(key);
+    return upstream(key, () -> request.exchange((req, res) -> {
+      client.checkStatus(res, "Місто не знайдено: " + key);
+      return mapper.current(objectMapper.readTree(res.getBody()));
+    }));
+  }
+
+  /**
+   * @param key назва міста, ключ {@code id:<ідентифікатор міста>} або ключ {@link GeoCell}
+   */
+  private RestClient.RequestHeadersSpec<?> currentRequest(String key) {
+    Optional<GeoCell> cell = GeoCell.fromKey(key);
+    if (cell.isPresent()) {
+      return client.get(WEATHER_COORDINATES_URI,
+          GeoCell.format(cell.get().lat()), GeoCell.format(cell.get().lon()));
+    }
+    return ForecastCache.cityId(key)
+        .<RestClient.RequestHeadersSpec<?>>map(id -> client.get(WEATHER_ID_URI, id))
+        .orElseGet(() -> client.get(WEATHER_URI, key));
+  }
+
+  private AirQuality fetchAirQuality(GeoCell cell) {
+    RestClient.RequestHeadersSpec<?> request = client.get(AIR_POLLUTION_URI,
+        GeoCell.format(cell.lat()), GeoCell.format(cell.lon()));
+    return upstream(cell.key(), () -> request.exchange((req, res) -> {
+      client.checkStatus(res, "Дані про якість повітря відсутні");
+      return mapper.airQuality(objectMapper.readTree(res.getBody()));
+    }));
+  }
+
+  /**
+   * Частини зведеної відповіді чекає користувач, тож вони мають пріоритет інтерактивних запитів
+   */
+  private <T> T upstream(String key, Supplier<T> call) {
+    return client.execute(key, RequestPriority.INTERACTIVE, call);
+  }
+
+  private ResourceNotFoundException cityNotFound(String cityName) {
+    List<String> suggestions = cityService.suggest(cityName);
+    return new ResourceNotFoundException("Місто не знайдено: " + cityName,
+        suggestions.isEmpty() ? null : Map.of("suggestions", suggestions));
+  }
+
+  private <T> CompletableFuture<T> async(Supplier<T> part) {
+    return CompletableFuture.supplyAsync(part, executor);
+  }
+
+  private GeoCell cell(CityInfo city) {
+    return geoGrid.snap(city.lat(), city.lon());
+  }
+
+  private void count(String part, String outcome) {
+    outcomes.computeIfAbsent(part + "/" + outcome, key -> Counter.builder("dashboard.parts")
+        .description("Dashboard parts by outcome")
+        .tag("part", part)
+        .tag("outcome", outcome)
+        .register(meterRegistry)).increment();
+  }
+
+  private static DashboardPart<List<Forecast>> forecastPart(ForecastEntry entry) {
+    return entry.stale()
+        ? DashboardPart.stale(entry.forecasts(), age(entry.fetchedAt()))
+        : DashboardPart.ok(entry.forecasts());
+  }
+
+  private static <T> DashboardPart<T> part(PartCache.Entry<T> entry) {
+    return entry.stale()
+        ? DashboardPart.stale(entry.value(), age(entry.fetchedAt()))
+        : DashboardPart.ok(entry.value());
+  }
+
+  /**
+   * Свіжість успішної частини; нуль для помилок і останніх відомих даних
+   */
+  private static <R> Duration freshness(DashboardPart<?> part, CompletableFuture<R> future,
+      Function<R, Duration> freshness) {
+    if (part.failed() || part.stale() != null) {
+      return Duration.ZERO;
+    }
+    return freshness.apply(future.join());
+  }
+
+  private static long age(Instant fetchedAt) {
+    return Duration.between(fetchedAt, Instant.now()).toSeconds();
+  }
+}
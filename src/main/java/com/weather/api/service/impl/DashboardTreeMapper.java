@@ -0,0 +1,82 @@
+package com.weather.api.service.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.weather.api.exception.ResourceNotFoundException;
+import com.weather.api.model.AirQuality;
+import com.weather.api.model.CityInfo;
+import com.weather.api.model.CurrentWeather;
+import com.weather.api.model.Weather;
+import com.weather.api.model.Wind;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Зіставлення відповідей {@code /data/2.5/weather} та {@code /data/2.5/air_pollution} з частинами
+ * зведеної відповіді. Відповіді невеликі, тож розбираються через дерево {@link JsonNode}
+ */
+final class DashboardTreeMapper {
+
+  CurrentWeather current(JsonNode node) {
+    JsonNode main = node.path("main");
+    JsonNode coord = node.path("coord");
+    CityInfo city = new CityInfo(
+        node.path("id").asLong(),
+        node.path("name").asText(),
+        node.path("sys").path("country").asText(),
+        coord.path("lat").asDouble(),
+        coord.path("lon").asDouble()
+    );
+
+    JsonNode weatherJson = node.path("weather").path(0);
+    Weather weather = weatherJson.isMissingNode() ? null : new Weather(
+        weatherJson.path("main").asText(),
+        weatherJson.path("description").asText(),
+        weatherJson.path("icon").asText()
+    );
+
+    JsonNode windJson = node.path("wind");
+    Wind wind = new Wind();
+    wind.setSpeed(number(windJson.path("speed")));
+    wind.setDeg(number(windJson.path("deg")));
+    wind.setGust(number(windJson.path("gust")));
+
+    return new CurrentWeather(
+        city,
+        ForecastAggregator.convertToLocalDateTime(node.path("dt").asLong()),
+        number(main.path("temp")),
+        number(main.path("feels_like")),
+        number(main.path("pressure")),
+        number(main.path("humidity")),
+        number(node.path("visibility")),
+        number(node.path("clouds").path("all")),
+        weather,
+        wind
+    );
+  }
+
+  /**
+   * @throws ResourceNotFoundException якщо для точки немає вимірювань
+   */
+  AirQuality airQuality(JsonNode node) {
+    JsonNode item = node.path("list").path(0);
+    if (item.isMissingNode()) {
+      throw new ResourceNotFoundException("Дані про якість повітря відсутні");
+    }
+
+    Map<String, Double> components = new LinkedHashMap<>();
+    item.path("components").fields().forEachRemaining(component ->
+        components.put(component.getKey(), component.getValue().asDouble()));
+    return new AirQuality(
+        ForecastAggregator.convertToLocalDateTime(item.path("dt").asLong()),
+        item.path("main").path("aqi").asInt(),
+        components
+    );
+  }
+
+  /**
+   * @return значення або {@code null}, якщо поля немає у відповіді
+   */
+  private static Double number(JsonNode node) {
+    return node.isNumber() ? node.asDouble() : null;
+  }
+}
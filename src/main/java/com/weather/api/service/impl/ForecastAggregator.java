@@ -0,0 +1,54 @@
+package com.weather.api.service.impl;
+
+import com.weather.api.model.AggregationWindow;
+import com.weather.api.model.City;
+import com.weather.api.model.Forecast;
+import com.weather.api.model.ForecastData;
+import com.weather.api.model.ForecastPoint;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Збирає результат запиту за один прохід по 3-годинних періодах: кожен період зберігається як
+ * {@link ForecastPoint} і одночасно додається до денного {@link WindowAggregator}. Джерело
+ * періодів неважливе — дерево {@code JsonNode} або потоковий парсер
+ */
+final class ForecastAggregator {
+
+  private final List<ForecastPoint> periods = new ArrayList<>(40);
+  private final List<Forecast> forecastList = new ArrayList<>(6);
+  private final WindowAggregator days = new WindowAggregator(AggregationWindow.DAY,
+      (start, end, forecast) -> forecastList.add(forecast));
+
+  /**
+   * Додає період до результату
+   *
+   * @param period значення 3-годинного запису, після виклику його можна перевикористати
+   */
+  void add(ForecastPeriod period) {
+    ForecastPoint point = period.toPoint();
+    periods.add(point);
+    days.add(point);
+  }
+
+  /**
+   * Закриває останній день і повертає результат
+   *
+   * @param city місто — загальні дані для кожного дня
+   * @return прогноз по днях та вихідні періоди
+   */
+  ForecastData finish(City city) {
+    days.finish();
+    forecastList.forEach(forecast -> forecast.setCity(city));
+    return new ForecastData(forecastList, periods);
+  }
+
+  static LocalDateTime convertToLocalDateTime(long timestamp) {
+    return Instant.ofEpochSecond(timestamp)
+        .atZone(ZoneId.systemDefault())
+        .toLocalDateTime();
+  }
+}
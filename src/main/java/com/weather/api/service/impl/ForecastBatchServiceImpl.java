@@ -0,0 +1,155 @@
+package com.weather.api.service.impl;
+
+import static org.springframework.http.HttpStatus.GATEWAY_TIMEOUT;
+import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
+
+import com.weather.api.cache.ForecastCache;
+import com.weather.api.exception.BadRequestException;
+import com.weather.api.model.BatchForecastResponse;
+import com.weather.api.model.BatchForecastResult;
+import com.weather.api.service.contract.ForecastBatchService;
+import com.weather.api.service.contract.ForecastService;
+import com.weather.api.service.contract.RequestPriority;
+import com.weather.api.shared.exception.ResourceException;
+import com.weather.api.shared.exception.ResourceStatus;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Обробники пакета працюють на власних віртуальних потоках, а не на спільному
+ * {@code applicationTaskExecutor}: той має обмежений пул і чергу, яку ділять фонові оновлення,
+ * тож пакет чекав би там у черзі й отримував 504 замість прогнозів. Кількість одночасних міст
+ * обмежують {@code max-parallelism} та {@link UpstreamConcurrencyLimiter}
+ */
+@Slf4j
+@Service
+public class ForecastBatchServiceImpl implements ForecastBatchService, DisposableBean {
+
+  private final ForecastService forecastService;
+  private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+  private final int maxCities;
+  private final int maxParallelism;
+  private final Duration deadline;
+
+  public ForecastBatchServiceImpl(
+      ForecastService forecastService,
+      @Value("${api.batch.max-cities}") int maxCities,
+      @Value("${api.batch.max-parallelism}") int maxParallelism,
+      @Value("${api.batch.deadline}") Duration deadline
+  ) {
+    this.forecastService = forecastService;
+    this.maxCities = maxCities;
+    this.maxParallelism = maxParallelism;
+    this.deadline = deadline;
+  }
+
+  @Override
+  public void destroy() {
+    executor.shutdownNow();
+  }
+
+  /**
+   * Отримує прогнози для кількох міст паралельно. Одночасно працює не більше
+   * {@code max-parallelism} обробників, що по черзі забирають міста зі спільної черги; після
+   * {@code deadline} нові міста не беруться, а незавершені отримують статус 504. Помилка одного
+   * міста не впливає на інші
+   *
+   * @param cityNames назви міст
+   * @return результати по кожному унікальному місту
+   */
+  @Override
+  public BatchForecastResponse searchByCityNames(List<String> cityNames) {
+    Map<String, String> cities = dedupe(cityNames);
+    long deadlineNanos = System.nanoTime() + deadline.toNanos();
+
+    Queue<Map.Entry<String, String>> pending = new ConcurrentLinkedQueue<>(cities.entrySet());
+    Map<String, BatchForecastResult> results = new ConcurrentHashMap<>();
+    int workers = Math.min(maxParallelism, cities.size());
+    CompletableFuture<?>[] futures = new CompletableFuture<?>[workers];
+    for (int i = 0; i < workers; i++) {
+      futures[i] = CompletableFuture.runAsync(
+          () -> drain(pending, results, deadlineNanos), executor);
+    }
+    awaitAll(futures, deadlineNanos);
+
+    Map<String, BatchForecastResult> ordered = new LinkedHashMap<>();
+    cities.forEach((key, cityName) -> ordered.put(cityName, results.getOrDefault(key,
+        BatchForecastResult.error(GATEWAY_TIMEOUT.value(), GATEWAY_TIMEOUT.getReasonPhrase(),
+            "Час обробки пакетного запиту вичерпано"))));
+    return new BatchForecastResponse(ordered);
+  }
+
+  /**
+   * @return нормалізований ключ → назва міста у тому вигляді, як вона вперше зустрілась у запиті
+   */
+  private Map<String, String> dedupe(List<String> cityNames) {
+    Map<String, String> cities = new LinkedHashMap<>();
+    if (cityNames != null) {
+      for (String cityName : cityNames) {
+        if (cityName != null && !cityName.isBlank()) {
+          cities.putIfAbsent(ForecastCache.key(cityName), cityName);
+        }
+      }
+    }
+
+    if (cities.isEmpty()) {
+      throw new BadRequestException("Список міст порожній");
+    }
+    if (cities.size() > maxCities) {
+      throw new BadRequestException("Забагато міст у запиті, максимум: " + maxCities);
+    }
+    return cities;
+  }
+
+  private void drain(
+      Queue<Map.Entry<String, String>> pending, Map<String, BatchForecastResult> results,
+      long deadlineNanos
+  ) {
+    Map.Entry<String, String> city;
+    while (System.nanoTime() < deadlineNanos && (city = pending.poll()) != null) {
+      results.put(city.getKey(), resolve(city.getValue()));
+    }
+  }
+
+  private BatchForecastResult resolve(String cityName) {
+    try {
+      return BatchForecastResult.ok(
+          forecastService.searchByCityName(cityName, RequestPriority.BATCH));
+    } catch (ResourceException e) {
+      ResourceStatus status = ResourceStatus.of(e);
+      return BatchForecastResult.error(status.code(), status.reason(), e.getMessage());
+    } catch (Exception e) {
+      log.error("Batch forecast failed for '{}'", cityName, e);
+      return BatchForecastResult.error(INTERNAL_SERVER_ERROR.value(),
+          INTERNAL_SERVER_ERROR.getReasonPhrase(), "An unexpected server error occurred.");
+    }
+  }
+
+  private void awaitAll(CompletableFuture<?>[] futures, long deadlineNanos) {
+    try {
+      CompletableFuture.allOf(futures)
+          .get(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+    } catch (TimeoutException e) {
+      log.warn("Batch forecast deadline of {} exceeded", deadline);
+    } catch (ExecutionException e) {
+      log.error("Batch forecast worker failed", e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
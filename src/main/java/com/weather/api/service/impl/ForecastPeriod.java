@@ -0,0 +1,47 @@
+package com.weather.api.service.impl;
+
+import com.weather.api.model.ForecastPoint;
+import com.weather.api.model.Weather;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Значення одного 3-годинного запису з {@code list}, що заповнюються під час розбору. Один
+ * екземпляр перевикористовується для всіх записів відповіді: після копіювання в незмінний
+ * {@link ForecastPoint} його скидають через {@link #reset()}
+ */
+final class ForecastPeriod {
+
+  long dt;
+  double temperature;
+  double feelsLike;
+  double minTemperature;
+  double maxTemperature;
+  double pressure;
+  double humidity;
+  double visibility;
+  double windSpeed;
+  double windGust;
+  double windDeg;
+  final List<Weather> weathers = new ArrayList<>(1);
+
+  ForecastPoint toPoint() {
+    return new ForecastPoint(dt, temperature, feelsLike, minTemperature, maxTemperature, pressure,
+        humidity, visibility, windSpeed, windGust, windDeg, weathers);
+  }
+
+  void reset() {
+    dt = 0;
+    temperature = 0;
+    feelsLike = 0;
+    minTemperature = 0;
+    maxTemperature = 0;
+    pressure = 0;
+    humidity = 0;
+    visibility = 0;
+    windSpeed = 0;
+    windGust = 0;
+    windDeg = 0;
+    weathers.clear();
+  }
+}
@@ -0,0 +1,175 @@
+package com.weather.api.service.impl;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.weather.api.exception.BadRequestException;
+import com.weather.api.model.AggregationWindow;
+import com.weather.api.model.Forecast;
+import com.weather.api.model.ForecastPoint;
+import com.weather.api.model.ForecastView;
+import com.weather.api.model.ResponseFormat;
+import com.weather.api.model.Units;
+import com.weather.api.model.WindowForecast;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Серіалізує агрегований прогноз у {@link ForecastView}: перерахунок одиниць, вибір полів,
+ * конверт з даними міста та формат. Бінарні формати використовують ті самі налаштування Jackson,
+ * що й JSON. Вікна агрегації пишуться потоком NDJSON, див.
+ * {@link #writeWindows(List, AggregationWindow, Units, OutputStream)}
+ */
+final class ForecastRenderer {
+
+  private static final String CITY = "city";
+  /**
+   * Кінцеві поля дня {@link Forecast}, які можна запитати в {@code fields}. Вкладені об'єкти
+   * ({@code wind}, {@code weather}, {@code city}) запитуються лише своїми полями, тож один і той
+   * самий набір даних не має двох різних ключів представлення
+   */
+  private static final Set<String> FIELDS = Set.of("date", "temperature", "feelsLike",
+      "minTemperature", "maxTemperature", "pressure", "visibility", "humidity",
+      "weather.type", "weather.description", "weather.icon",
+      "wind.speed", "wind.deg", "wind.gust",
+      "city.name", "city.country", "city.population", "city.timezone", "city.sunset",
+      "city.sunrise");
+
+  private final Map<ResponseFormat, ObjectMapper> mappers = new EnumMap<>(ResponseFormat.class);
+  private final ObjectWriter lines;
+
+  ForecastRenderer(ObjectMapper objectMapper) {
+    // Порожнє місто вікна не пишеться в кожен рядок
+    this.lines = objectMapper.copy()
+        .setSerializationInclusion(JsonInclude.Include.NON_NULL)
+        .writerFor(WindowForecast.class);
+    mappers.put(ResponseFormat.JSON, objectMapper);
+    mappers.put(ResponseFormat.CBOR, objectMapper.copyWith(new CBORFactory()));
+    mappers.put(ResponseFormat.SMILE, objectMapper.copyWith(new SmileFactory()));
+  }
+
+  /**
+   * Перевіряє повні шляхи кінцевих полів, тож у ключ представлення ({@link ForecastView#key()}),
+   * а з ним і в {@code ETag} та кеш варіантів, потрапляють лише відомі імена
+   *
+   * @throws BadRequestException якщо запитано невідоме поле або вкладений об'єкт цілком
+   */
+  static void validate(ForecastView view) {
+    for (String field : view.fields()) {
+      if (!FIELDS.contains(field)) {
+        throw new BadRequestException("Невідоме поле: " + field);
+      }
+    }
+  }
+
+  byte[] render(List<Forecast> forecasts, ForecastView view) {
+    List<Forecast> converted = UnitConverter.convert(forecasts, view.units());
+    ObjectMapper mapper = mappers.get(view.format());
+    try {
+      if (view.fields().isEmpty() && !view.envelope()) {
+        return mapper.writeValueAsBytes(converted);
+      }
+      return mapper.writeValueAsBytes(shape(mapper, converted, view));
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Cannot serialize forecast", e);
+    }
+  }
+
+  /**
+   * Агрегує періоди у вікна за один прохід і пише кожне вікно окремим рядком JSON, щойно воно
+   * закривається, зі скиданням буфера. У пам'яті одночасно лише одне вікно, тому час до першого
+   * байта та пам'ять на запит не залежать від кількості вікон
+   *
+   * @param periods 3-годинні періоди в метричній системі
+   * @param window  розмір вікна
+   * @param units   система одиниць
+   * @param out     тіло відповіді
+   */
+  void writeWindows(List<ForecastPoint> periods, AggregationWindow window, Units units,
+      OutputStream out) throws IOException {
+    try (JsonGenerator generator = lines.createGenerator(out)) {
+      generator.setRootValueSeparator(null); // рядки розділяє явний '\n'
+      WindowAggregator aggregator = new WindowAggregator(window, (start, end, forecast) -> {
+        try {
+          lines.writeValue(generator,
+              new WindowForecast(start, end, UnitConverter.convert(forecast, units)));
+          generator.writeRaw('\n');
+          generator.flush();
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      });
+      for (ForecastPoint period : periods) {
+        aggregator.add(period);
+      }
+      aggregator.finish();
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  private static JsonNode shape(ObjectMapper mapper, List<Forecast> forecasts, ForecastView view) {
+    ArrayNode days = mapper.createArrayNode();
+    for (Forecast forecast : forecasts) {
+      ObjectNode day = mapper.valueToTree(forecast);
+      if (view.envelope()) {
+        day.remove(CITY);
+      }
+      days.add(view.fields().isEmpty() ? day : project(mapper, day, view.fields()));
+    }
+    if (!view.envelope()) {
+      return days;
+    }
+
+    ObjectNode envelope = mapper.createObjectNode();
+    envelope.set(CITY, forecasts.isEmpty()
+        ? mapper.nullNode()
+        : mapper.valueToTree(forecasts.get(0).getCity()));
+    envelope.set("forecasts", days);
+    return envelope;
+  }
+
+  /**
+   * Копіює з {@code source} лише вказані шляхи; відсутні значення пропускаються, як і шляхи, чий
+   * батьківський вузол у результаті вже не є об'єктом (напр. {@code null})
+   */
+  private static ObjectNode project(ObjectMapper mapper, ObjectNode source, List<String> fields) {
+    ObjectNode target = mapper.createObjectNode();
+    for (String field : fields) {
+      String[] path = field.split("\\.");
+      JsonNode value = source;
+      for (String name : path) {
+        value = value.path(name);
+      }
+      if (value.isMissingNode()) {
+        continue;
+      }
+
+      ObjectNode parent = target;
+      for (int i = 0; i < path.length - 1 && parent != null; i++) {
+        JsonNode child = parent.get(path[i]);
+        if (child == null) {
+          parent = parent.putObject(path[i]);
+        } else {
+          parent = child.isObject() ? (ObjectNode) child : null;
+        }
+      }
+      if (parent != null) {
+        parent.set(path[path.length - 1], value);
+      }
+    }
+    return target;
+  }
+}
@@ -1,21 +1,30 @@
 package com.weather.api.service.impl;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.weather.api.cache.CityPopularity;
+import com.weather.api.cache.ForecastBody;
+import com.weather.api.cache.ForecastCache;
+import com.weather.api.cache.ForecastEntry;
+import com.weather.api.cache.GeoCell;
+import com.weather.api.cache.GeoGrid;
 import com.weather.api.exception.ResourceNotFoundException;
-import com.weather.api.model.City;
-import com.weather.api.model.Forecast;
-import com.weather.api.model.Weather;
-import com.weather.api.model.Wind;
+import com.weather.api.metrics.ForecastMetrics;
+import com.weather.api.model.AggregationWindow;
+import com.weather.api.model.CityInfo;
+import com.weather.api.model.ForecastData;
+import com.weather.api.model.ForecastView;
+import com.weather.api.model.Units;
+import com.weather.api.service.contract.CityService;
 import com.weather.api.service.contract.ForecastService;
-import java.math.BigDecimal;
-import java.math.RoundingMode;
-import java.time.Instant;
-import java.time.LocalDateTime;
-import java.time.ZoneId;
-import java.util.ArrayList;
-import java.util.HashMap;
+import com.weather.api.service.contract.RequestPriority;
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
@@ -25,263 +34,193 @@ import org.springframework.web.client.RestClient;
 @Service
 public class ForecastServiceImpl implements ForecastService {
 
-  private final RestClient restClient;
-  private final String API_KEY;
+  private static final String FORECAST_URI = "/data/2.5/forecast?q={city}&units=metric";
+  private static final String COORDINATES_URI =
+      "/data/2.5/forecast?lat={lat}&lon={lon}&units=metric";
+  private static final String CITY_ID_URI = "/data/2.5/forecast?id={id}&units=metric";
+
+  private final OpenWeatherMapClient client;
+  private final ForecastCache forecastCache;
+  private final CityPopularity popularity;
+  private final GeoGrid geoGrid;
+  private final CityService cityService;
+  private final ForecastMetrics metrics;
+  private final ObjectMapper objectMapper;
+  private final ForecastStreamParser streamParser;
+  private final ForecastTreeMapper treeMapper = new ForecastTreeMapper();
+  private final ForecastRenderer renderer;
+  private final boolean streamingParse;
 
   public ForecastServiceImpl(
-      RestClient restClient,
-      @Value("${api.key}") String API_KEY
+      OpenWeatherMapClient client,
+      ForecastCache forecastCache,
+      CityPopularity popularity,
+      GeoGrid geoGrid,
+      CityService cityService,
+      ObjectMapper objectMapper,
+      ForecastMetrics metrics,
+      @Value("${api.upstream.streaming-parse}") boolean streamingParse
   ) {
-    this.restClient = restClient;
-    this.API_KEY = API_KEY;
+    this.client = client;
+    this.forecastCache = forecastCache;
+    this.popularity = popularity;
+    this.geoGrid = geoGrid;
+    this.cityService = cityService;
+    this.metrics = metrics;
+    this.objectMapper = objectMapper;
+    this.streamParser = new ForecastStreamParser(objectMapper.getFactory());
+    this.renderer = new ForecastRenderer(objectMapper);
+    this.streamingParse = streamingParse;
   }
 
   @Override
-  public List<Forecast> searchByCityName(String cityName) {
-    return buildForecast(fetchData(cityName));
-  }
-
-  // TODO: optional add 'metric' and 'imperial' type fetch data
-  private JsonNode fetchData(String cityName) {
-    return restClient.get()
-        .uri("/data/2.5/forecast?q={city}&units=metric&appid={key}", cityName, API_KEY)
-        .retrieve()
-        .onStatus(
-            status -> status.value() == 404, (req, res) -> {
-              throw new ResourceNotFoundException("Місто не знайдено: " + cityName);
-            }
-        )
-        .body(JsonNode.class);
+  public ForecastEntry searchByCityName(String cityName) {
+    return searchByCityName(cityName, RequestPriority.INTERACTIVE);
   }
 
   /**
-   * Групуємо результат по днях
-   *
-   * @param forecastJson {@link JsonNode} дані з самого кореня
-   * @return список прогнозів
+   * Назва спершу шукається в довіднику {@link CityService}: однозначно знайдене місто
+   * запитується за ідентифікатором, і всі варіанти його назви мають спільний запис кешу. Інші
+   * назви передаються зовнішньому API як є, а ті, що воно не знайшло, надалі відхиляються
+   * локально — разом зі схожими назвами з довідника
    */
-  private List<Forecast> buildForecast(JsonNode forecastJson) {
-    JsonNode list = forecastJson.get("list");
-
-    Forecast fr = new Forecast();
-    List<Forecast> forecastList = new ArrayList<>();
-
-    Map<Weather, Integer> weathers = new HashMap<>();
-
-    int counter = 0;
-    int countPeriodsByDay = 0;
-    for (JsonNode node : list) {
-      counter++; // Для визначення чи це останній запис
-      long timestamp = node.path("dt").asLong();
-      LocalDateTime dateTime = convertToLocalDateTime(timestamp);
-
-      if (fr.getDate() == null) {
-        fr.setDate(dateTime.toLocalDate());
-      }
-
-      // Якщо це інший день
-      if (!fr.getDate().equals(dateTime.toLocalDate())) {
-        // Логіка підсумовування даних, avg, max, ... — готовий об'єкт
-        compilationSummaryForecast(
-            fr, forecastJson, forecastList, weathers, countPeriodsByDay);
-        // Перезаписуємо змінні для наступних днів
-        countPeriodsByDay = 0;
-        weathers.clear();
-        fr = new Forecast();
-      }
-
-      // Перетворює дані Json на поля об'єкта Forecast
-      mapJsonToForecast(node, fr, weathers);
-      // Підрахунок 3-годинних періодів,
-      // необхідних для коректного дільника avg значень прогнозу
-      countPeriodsByDay++;
+  @Override
+  public ForecastEntry searchByCityName(String cityName, RequestPriority priority) {
+    ForecastCache.checkCityName(cityName);
+    if (cityService.isRejected(cityName)) {
+      throw cityNotFound(cityName);
+    }
 
-      if (counter == list.size()) {
-        compilationSummaryForecast(
-            fr, forecastJson, forecastList, weathers, countPeriodsByDay);
+    Optional<CityInfo> city = cityService.resolve(cityName);
+    String cacheKey = city
+        .map(c -> ForecastCache.cityIdKey(c.id()))
+        .orElseGet(() -> ForecastCache.key(cityName));
+    try {
+      return search(cacheKey, priority);
+    } catch (ResourceNotFoundException e) {
+      if (city.isEmpty()) {
+        cityService.markUnknown(cityName);
       }
+      throw cityNotFound(cityName);
     }
-
-    return forecastList;
   }
 
-  /**
-   * Проміжний метод для виклику json методів зіставлення полів сутності
-   *
-   * @param node     конкретний запис в list
-   * @param fr       сутність що до якої зіставляються дані
-   * @param weathers погодний стан — для зіставлення з цим періодом
-   */
-  private void mapJsonToForecast(JsonNode node, Forecast fr, Map<Weather, Integer> weathers) {
-    fillJsonMain(node, fr);
-    try {
-      fr.plusVisibility(node.get("visibility").asDouble());
-    } catch (Exception e) {
-      log.error("Error mapping forecast by visibility value in list node: {}", e);
-    }
-    fillJsonWind(node, fr.getWind());
-    // Збираємо усі потім шукаємо найбільш «частий» тип погоди
-    fillJsonWeather(node, weathers);
+  @Override
+  public ForecastEntry searchByCoordinates(double lat, double lon) {
+    return search(geoGrid.snap(lat, lon).key(), RequestPriority.INTERACTIVE);
   }
 
-  /**
-   * Виконує «збірку» результату {@link Forecast}, викликаючи методи зіставлення json з сутністю,
-   * також виконання певних проміжних операцій по типу ділення на періоди або пошуку максимального
-   *
-   * @param fr                {@link Forecast} сутність що буде збережена
-   * @param forecastJson      {@link JsonNode} дані з самого кореня
-   * @param forecastList      список сутностей що будуть результатом повернення із запиту
-   * @param weathers          стан погоди — для пошуку найбільш повторювальної за період
-   * @param countPeriodsByDay періоди за день (залежать від інтервалу часу)
-   */
-  private void compilationSummaryForecast(
-      Forecast fr, JsonNode forecastJson, List<Forecast> forecastList,
-      Map<Weather, Integer> weathers, int countPeriodsByDay
-  ) {
-    fr.setCity(fillJsonCity(forecastJson)); // Місто — загальні дані
-    fr.setWeather(oftenWeather(weathers)); // Додали найбільш «часту» погоду
-    divideValues(fr, countPeriodsByDay); // Середнє значення всіх метрик
-    forecastList.add(fr);
+  private ResourceNotFoundException cityNotFound(String cityName) {
+    List<String> suggestions = cityService.suggest(cityName);
+    return new ResourceNotFoundException("Місто не знайдено: " + cityName,
+        suggestions.isEmpty() ? null : Map.of("suggestions", suggestions));
   }
 
-  /**
-   * Заповнення основних даних про метрики погоди
-   *
-   * @param node     конкретний запис періоду у list
-   * @param forecast конкретні метрики що сумуються, потім повинні ділитися на кількість періодів
-   */
-  private void fillJsonMain(JsonNode node, Forecast forecast) {
+  private ForecastEntry search(String cacheKey, RequestPriority priority) {
+    popularity.record(cacheKey);
+    ForecastEntry entry;
     try {
-      JsonNode mainJson = node.get("main");
-      forecast.plusTemperature(mainJson.path("temp").asDouble());
-      forecast.plusFeelsLike(mainJson.path("feels_like").asDouble());
-      forecast.plusMinTemperature(mainJson.path("temp_min").asDouble());
-      forecast.plusMaxTemperature(mainJson.path("temp_max").asDouble());
-      forecast.plusPressure(mainJson.path("pressure").asDouble());
-      forecast.plusHumidity(mainJson.path("humidity").asDouble());
-    } catch (Exception e) {
-      log.error("Error mapping forecast main node: ", e);
+      entry = forecastCache.get(cacheKey, (key, background) ->
+          callUpstream(key, background ? RequestPriority.BACKGROUND : priority));
+    } catch (RuntimeException e) {
+      metrics.cityRequested(cacheKey, false);
+      throw e;
     }
+    metrics.cityRequested(cacheKey, true);
+    return entry;
   }
 
-  /**
-   * Заповнює дані про вітер
-   *
-   * @param node конкретний запис періоду у list
-   * @param wind {@link Wind} вітер
-   */
-  private void fillJsonWind(JsonNode node, Wind wind) {
-    try {
-      JsonNode windJson = node.get("wind");
-      wind.plusSpeed(windJson.path("speed").asDouble());
-      wind.plusGust(windJson.path("gust").asDouble());
-      wind.plusDeg(windJson.path("deg").asDouble());
-    } catch (Exception e) {
-      log.error("Error mapping forecast wind node: ", e);
+  @Override
+  public ForecastBody render(ForecastEntry entry, ForecastView view) {
+    if (view.isDefault()) {
+      return entry.body();
     }
+
+    ForecastRenderer.validate(view);
+    return forecastCache.variant(entry, view.key(), forecasts -> {
+      Timer.Sample serialize = metrics.start();
+      byte[] body = renderer.render(forecasts, view);
+      metrics.stop(serialize, ForecastMetrics.STAGE_SERIALIZE);
+      return body;
+    });
   }
 
-  /**
-   * Заповнює json даними про стан погоди (згідно resp вертається масив з API)
-   *
-   * @param node     конкретний запис періоду у list
-   * @param weathers {@link Weather} стан погоди, з індикатором найбільш повторювальної за день
-   */
-  private void fillJsonWeather(JsonNode node, Map<Weather, Integer> weathers) {
-    JsonNode weatherJson = node.get("weather");
-    for (JsonNode item : weatherJson) {
-      Weather weather = null;
-      try {
-        weather = new Weather(
-            item.path("main").asText(),
-            item.path("description").asText(),
-            item.path("icon").asText()
-        );
-      } catch (Exception e) {
-        log.error("Error mapping forecast weather node: ", e);
-      }
+  @Override
+  public void writeWindows(ForecastEntry entry, AggregationWindow window, Units units,
+      OutputStream out) throws IOException {
+    renderer.writeWindows(entry.periods(), window, units, out);
+  }
 
-      if (weathers.containsKey(weather)) {
-        weathers.compute(weather, (k, count) -> count != null ? count + 1 : 1);
-      } else {
-        weathers.put(weather, 1);
-      }
-    }
+  @Override
+  public void refresh(String cityKey) {
+    forecastCache.refresh(cityKey,
+        (key, background) -> callUpstream(key, RequestPriority.BACKGROUND));
   }
 
   /**
-   * Заповнює json даними про місто
+   * Запит до OpenWeatherMap через {@link OpenWeatherMapClient} — в межах лімітів і через circuit
+   * breaker. 404 не вважається збоєм, а збої перетворюються на 503
    *
-   * @param node витягаються дані про місто з основного json
-   * @return {@link City} місто — загальні дані
+   * @param cityKey  нормалізована назва міста або ключ {@link GeoCell}
+   * @param priority пріоритет у черзі ліміту запитів
+   * @return агрегований прогноз та вихідні періоди
    */
-  private City fillJsonCity(JsonNode node) {
-    try {
-      JsonNode cityJson = node.get("city");
-      return new City(
-          cityJson.path("name").asText(),
-          cityJson.path("country").asText(),
-          cityJson.path("population").asLong(),
-          convertToLocalDateTime(cityJson.path("timezone").asLong()),
-          convertToLocalDateTime(cityJson.path("sunset").asLong()),
-          convertToLocalDateTime(cityJson.path("sunrise").asLong())
-      );
-    } catch (Exception e) {
-      log.error("Error mapping forecast city node: ", e);
-    }
-    return null;
+  private ForecastData callUpstream(String cityKey, RequestPriority priority) {
+    return client.execute(cityKey, priority, () -> fetchData(cityKey));
   }
 
   /**
-   * Виконує пошук {@link Weather} що попадався найчастіше за день
+   * Отримує та агрегує прогноз — завжди в метричній системі, інші одиниці перераховуються
+   * локально, див. {@link #render(ForecastEntry, ForecastView)}. У потоковому режимі тіло відповіді
+   * розбирається {@link ForecastStreamParser} в міру надходження байтів, без проміжного дерева
+   * {@link JsonNode}; інакше — через дерево та {@link ForecastTreeMapper}. Кожен етап вимірюється
+   * в {@link ForecastMetrics}
    *
-   * @param weathers стан погоди
-   * @return найбільш частий стан погоди за день
+   * @param cityName назва міста, ключ {@code id:<ідентифікатор міста>} або ключ {@link GeoCell} —
+   *                 тоді запит виконується за координатами центру комірки
+   * @return прогноз по днях та вихідні періоди
    */
-  private Weather oftenWeather(Map<Weather, Integer> weathers) {
-    Weather weather = null;
-    int max = 0;
-    for (Weather w : weathers.keySet()) {
-      if (weathers.get(w) > max) {
-        weather = w;
-        max = weathers.get(w);
-      }
+  private ForecastData fetchData(String cityName) {
+    Optional<GeoCell> cell = GeoCell.fromKey(cityName);
+    Optional<String> cityId = ForecastCache.cityId(cityName);
+    RestClient.RequestHeadersSpec<?> request;
+    if (cell.isPresent()) {
+      request = client.get(COORDINATES_URI,
+          GeoCell.format(cell.get().lat()), GeoCell.format(cell.get().lon()));
+    } else if (cityId.isPresent()) {
+      request = client.get(CITY_ID_URI, cityId.get());
+    } else {
+      request = client.get(FORECAST_URI, cityName);
     }
 
-    return weather;
+    Timer.Sample upstream = metrics.start();
+    return request
+        .exchange((req, res) -> {
+          metrics.stop(upstream, ForecastMetrics.STAGE_UPSTREAM);
+          client.checkStatus(res, "Місто не знайдено: " + cityName);
+
+          CountingInputStream body = new CountingInputStream(res.getBody());
+          ForecastData data = streamingParse ? streamParse(body) : treeParse(body);
+          metrics.upstreamBytes(body.getCount());
+          return data;
+        });
   }
 
-  /**
-   * Підсумовує значення дня по середньому
-   *
-   * @param forecast дані за день
-   * @param divisor  дільник (3 годинні періоди)
-   */
-  private void divideValues(Forecast forecast, int divisor) {
-    forecast.setTemperature(rounded(forecast.getTemperature() / divisor));
-    forecast.setFeelsLike(rounded(forecast.getFeelsLike() / divisor));
-    forecast.setMinTemperature(rounded(forecast.getMinTemperature() / divisor));
-    forecast.setMaxTemperature(rounded(forecast.getMaxTemperature() / divisor));
-    forecast.setPressure(rounded(forecast.getPressure() / divisor));
-    forecast.setVisibility(rounded(forecast.getVisibility() / divisor));
-    forecast.setHumidity(rounded(forecast.getHumidity() / divisor));
-
-    // Wind avg
-    forecast.getWind().setSpeed(rounded(forecast.getWind().getSpeed() / divisor));
-    forecast.getWind().setGust(rounded(forecast.getWind().getGust() / divisor));
-    forecast.getWind().setDeg(rounded(forecast.getWind().getDeg() / divisor));
+  private ForecastData streamParse(InputStream body) throws IOException {
+    Timer.Sample parse = metrics.start();
+    ForecastData data = streamParser.parse(body);
+    metrics.stop(parse, ForecastMetrics.STAGE_PARSE_AGGREGATE);
+    return data;
   }
 
-  private LocalDateTime convertToLocalDateTime(long timestamp) {
-    return Instant.ofEpochSecond(timestamp)
-        .atZone(ZoneId.systemDefault())
-        .toLocalDateTime();
-  }
+  private ForecastData treeParse(InputStream body) throws IOException {
+    Timer.Sample parse = metrics.start();
+    JsonNode tree = objectMapper.readTree(body);
+    metrics.stop(parse, ForecastMetrics.STAGE_PARSE);
 
-  private Double rounded(Double value) {
-    return BigDecimal
-        .valueOf(value)
-        .setScale(2, RoundingMode.HALF_UP)
-        .doubleValue();
+    Timer.Sample aggregate = metrics.start();
+    ForecastData data = treeMapper.map(tree);
+    metrics.stop(aggregate, ForecastMetrics.STAGE_AGGREGATE);
+    return data;
   }
 }
@@ -0,0 +1,186 @@
+package com.weather.api.service.impl;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.weather.api.model.City;
+import com.weather.api.model.ForecastData;
+import com.weather.api.model.Weather;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Потоковий розбір відповіді {@code /data/2.5/forecast} на рівні токенів {@link JsonParser}.
+ * Кожен запис {@code list} одразу передається в {@link ForecastAggregator}, тож дерево
+ * {@code JsonNode} для всієї відповіді не створюється
+ */
+final class ForecastStreamParser {
+
+  private final JsonFactory jsonFactory;
+
+  ForecastStreamParser(JsonFactory jsonFactory) {
+    this.jsonFactory = jsonFactory;
+  }
+
+  /**
+   * Розбирає тіло відповіді в міру надходження байтів
+   *
+   * @param body тіло відповіді від OpenWeatherMap
+   * @return прогноз по днях та вихідні періоди
+   * @throws IOException якщо тіло не є коректним JSON
+   */
+  ForecastData parse(InputStream body) throws IOException {
+    try (JsonParser parser = jsonFactory.createParser(body)) {
+      return parse(parser);
+    }
+  }
+
+  ForecastData parse(JsonParser parser) throws IOException {
+    if (parser.nextToken() != JsonToken.START_OBJECT) {
+      throw new JsonParseException(parser, "Expected forecast object");
+    }
+
+    ForecastAggregator aggregator = new ForecastAggregator();
+    City city = null;
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.currentName();
+      parser.nextToken();
+      switch (field) {
+        case "list" -> readList(parser, aggregator);
+        case "city" -> city = readCity(parser);
+        default -> parser.skipChildren();
+      }
+    }
+
+    return aggregator.finish(city);
+  }
+
+  private void readList(JsonParser parser, ForecastAggregator aggregator) throws IOException {
+    if (parser.currentToken() != JsonToken.START_ARRAY) {
+      parser.skipChildren();
+      return;
+    }
+
+    ForecastPeriod period = new ForecastPeriod();
+    while (parser.nextToken() == JsonToken.START_OBJECT) {
+      period.reset();
+      readPeriod(parser, period);
+      aggregator.add(period);
+    }
+  }
+
+  private void readPeriod(JsonParser parser, ForecastPeriod period) throws IOException {
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.currentName();
+      parser.nextToken();
+      switch (field) {
+        case "dt" -> period.dt = parser.getValueAsLong();
+        case "main" -> readMain(parser, period);
+        case "wind" -> readWind(parser, period);
+        case "weather" -> readWeather(parser, period);
+        case "visibility" -> period.visibility = parser.getValueAsDouble();
+        default -> parser.skipChildren();
+      }
+    }
+  }
+
+  private void readMain(JsonParser parser, ForecastPeriod period) throws IOException {
+    if (parser.currentToken() != JsonToken.START_OBJECT) {
+      parser.skipChildren();
+      return;
+    }
+
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.currentName();
+      parser.nextToken();
+      switch (field) {
+        case "temp" -> period.temperature = parser.getValueAsDouble();
+        case "feels_like" -> period.feelsLike = parser.getValueAsDouble();
+        case "temp_min" -> period.minTemperature = parser.getValueAsDouble();
+        case "temp_max" -> period.maxTemperature = parser.getValueAsDouble();
+        case "pressure" -> period.pressure = parser.getValueAsDouble();
+        case "humidity" -> period.humidity = parser.getValueAsDouble();
+        default -> parser.skipChildren();
+      }
+    }
+  }
+
+  private void readWind(JsonParser parser, ForecastPeriod period) throws IOException {
+    if (parser.currentToken() != JsonToken.START_OBJECT) {
+      parser.skipChildren();
+      return;
+    }
+
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.currentName();
+      parser.nextToken();
+      switch (field) {
+        case "speed" -> period.windSpeed = parser.getValueAsDouble();
+        case "gust" -> period.windGust = parser.getValueAsDouble();
+        case "deg" -> period.windDeg = parser.getValueAsDouble();
+        default -> parser.skipChildren();
+      }
+    }
+  }
+
+  private void readWeather(JsonParser parser, ForecastPeriod period) throws IOException {
+    if (parser.currentToken() != JsonToken.START_ARRAY) {
+      parser.skipChildren();
+      return;
+    }
+
+    while (parser.nextToken() == JsonToken.START_OBJECT) {
+      String type = "";
+      String description = "";
+      String icon = "";
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String field = parser.currentName();
+        parser.nextToken();
+        switch (field) {
+          case "main" -> type = parser.getValueAsString("");
+          case "description" -> description = parser.getValueAsString("");
+          case "icon" -> icon = parser.getValueAsString("");
+          default -> parser.skipChildren();
+        }
+      }
+      period.weathers.add(new Weather(type, description, icon));
+    }
+  }
+
+  private City readCity(JsonParser parser) throws IOException {
+    if (parser.currentToken() != JsonToken.START_OBJECT) {
+      parser.skipChildren();
+      return null;
+    }
+
+    String name = "";
+    String country = "";
+    long population = 0;
+    long timezone = 0;
+    long sunset = 0;
+    long sunrise = 0;
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.currentName();
+      parser.nextToken();
+      switch (field) {
+        case "name" -> name = parser.getValueAsString("");
+        case "country" -> country = parser.getValueAsString("");
+        case "population" -> population = parser.getValueAsLong();
+        case "timezone" -> timezone = parser.getValueAsLong();
+        case "sunset" -> sunset = parser.getValueAsLong();
+        case "sunrise" -> sunrise = parser.getValueAsLong();
+        default -> parser.skipChildren();
+      }
+    }
+
+    return new City(
+        name,
+        country,
+        population,
+        ForecastAggregator.convertToLocalDateTime(timezone),
+        ForecastAggregator.convertToLocalDateTime(sunset),
+        ForecastAggregator.convertToLocalDateTime(sunrise)
+    );
+  }
+}
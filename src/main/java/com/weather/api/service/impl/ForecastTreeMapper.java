@@ -0,0 +1,116 @@
+package com.weather.api.service.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.weather.api.model.City;
+import com.weather.api.model.ForecastData;
+import com.weather.api.model.Weather;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Зіставлення дерева {@link JsonNode} відповіді {@code /data/2.5/forecast} з прогнозом по днях.
+ * Запасний режим до {@link ForecastStreamParser}, обидва дають однаковий результат
+ */
+@Slf4j
+final class ForecastTreeMapper {
+
+  /**
+   * Групуємо результат по днях
+   *
+   * @param forecastJson {@link JsonNode} дані з самого кореня
+   * @return прогноз по днях та вихідні періоди
+   */
+  ForecastData map(JsonNode forecastJson) {
+    ForecastAggregator aggregator = new ForecastAggregator();
+    ForecastPeriod period = new ForecastPeriod();
+    for (JsonNode node : forecastJson.path("list")) {
+      period.reset();
+      // Перетворює дані Json на поля періоду
+      mapJsonToPeriod(node, period);
+      aggregator.add(period);
+    }
+
+    return aggregator.finish(fillJsonCity(forecastJson)); // Місто — загальні дані
+  }
+
+  /**
+   * Проміжний метод для виклику json методів зіставлення полів періоду
+   *
+   * @param node   конкретний запис в list
+   * @param period період, до якого зіставляються дані
+   */
+  private void mapJsonToPeriod(JsonNode node, ForecastPeriod period) {
+    period.dt = node.path("dt").asLong();
+    fillJsonMain(node, period);
+    period.visibility = node.path("visibility").asDouble();
+    fillJsonWind(node, period);
+    fillJsonWeather(node, period);
+  }
+
+  /**
+   * Заповнення основних даних про метрики погоди
+   *
+   * @param node   конкретний запис періоду у list
+   * @param period метрики періоду
+   */
+  private void fillJsonMain(JsonNode node, ForecastPeriod period) {
+    JsonNode mainJson = node.path("main");
+    period.temperature = mainJson.path("temp").asDouble();
+    period.feelsLike = mainJson.path("feels_like").asDouble();
+    period.minTemperature = mainJson.path("temp_min").asDouble();
+    period.maxTemperature = mainJson.path("temp_max").asDouble();
+    period.pressure = mainJson.path("pressure").asDouble();
+    period.humidity = mainJson.path("humidity").asDouble();
+  }
+
+  /**
+   * Заповнює дані про вітер
+   *
+   * @param node   конкретний запис періоду у list
+   * @param period метрики періоду
+   */
+  private void fillJsonWind(JsonNode node, ForecastPeriod period) {
+    JsonNode windJson = node.path("wind");
+    period.windSpeed = windJson.path("speed").asDouble();
+    period.windGust = windJson.path("gust").asDouble();
+    period.windDeg = windJson.path("deg").asDouble();
+  }
+
+  /**
+   * Заповнює дані про стан погоди (згідно resp вертається масив з API)
+   *
+   * @param node   конкретний запис періоду у list
+   * @param period період, до якого додаються стани погоди
+   */
+  private void fillJsonWeather(JsonNode node, ForecastPeriod period) {
+    for (JsonNode item : node.path("weather")) {
+      period.weathers.add(new Weather(
+          item.path("main").asText(),
+          item.path("description").asText(),
+          item.path("icon").asText()
+      ));
+    }
+  }
+
+  /**
+   * Заповнює json даними про місто
+   *
+   * @param node витягаються дані про місто з основного json
+   * @return {@link City} місто — загальні дані
+   */
+  private City fillJsonCity(JsonNode node) {
+    JsonNode cityJson = node.get("city");
+    if (cityJson == null) {
+      log.error("Error mapping forecast city node: city is missing");
+      return null;
+    }
+
+    return new City(
+        cityJson.path("name").asText(),
+        cityJson.path("country").asText(),
+        cityJson.path("population").asLong(),
+        ForecastAggregator.convertToLocalDateTime(cityJson.path("timezone").asLong()),
+        ForecastAggregator.convertToLocalDateTime(cityJson.path("sunset").asLong()),
+        ForecastAggregator.convertToLocalDateTime(cityJson.path("sunrise").asLong())
+    );
+  }
+}
@@ -0,0 +1,173 @@
+package com.weather.api.service.impl;
+
+import com.weather.api.exception.BadRequestException;
+import com.weather.api.exception.ResourceNotFoundException;
+import com.weather.api.exception.ServiceUnavailableException;
+import com.weather.api.metrics.ForecastMetrics;
+import com.weather.api.service.contract.RequestPriority;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.DefaultResponseErrorHandler;
+import org.springframework.web.client.ResponseErrorHandler;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestClientResponseException;
+
+/**
+ * Спільні правила викликів OpenWeatherMap для всіх сервісів: ключ API, адаптивний ліміт
+ * одночасних запитів {@link UpstreamConcurrencyLimiter}, ліміт тарифного плану
+ * {@link UpstreamRateLimiter}, circuit breaker {@code openweathermap} та обробка статусів
+ * відповіді. Збої, вичерпані ліміти та відмова відкритого breaker-а перетворюються на
+ * {@link ServiceUnavailableException} (503).
+ * <p>
+ * Відповіді рахуються в {@code forecast.upstream.responses{status}}, див. {@link ForecastMetrics}
+ */
+@Slf4j
+@Component
+public class OpenWeatherMapClient {
+
+  private static final String API_KEY_PARAM = "&appid={key}";
+  private static final Duration DEFAULT_RETRY_AFTER = Duration.ofMinutes(1);
+  private static final String UNAVAILABLE = "Сервіс прогнозів тимчасово недоступний";
+
+  private final RestClient restClient;
+  private final CircuitBreaker circuitBreaker;
+  private final UpstreamRateLimiter rateLimiter;
+  private final UpstreamConcurrencyLimiter concurrencyLimiter;
+  private final ForecastMetrics metrics;
+  private final ResponseErrorHandler errorHandler = new DefaultResponseErrorHandler();
+  private final String API_KEY;
+
+  public OpenWeatherMapClient(
+      RestClient restClient,
+      CircuitBreakerRegistry circuitBreakerRegistry,
+      UpstreamRateLimiter rateLimiter,
+      UpstreamConcurrencyLimiter concurrencyLimiter,
+      ForecastMetrics metrics,
+      @Value("${api.key}") String API_KEY
+  ) {
+    this.restClient = restClient;
+    this.circuitBreaker = circuitBreakerRegistry.circuitBreaker("openweathermap");
+    this.circuitBreaker.getEventPublisher().onStateTransition(event ->
+        log.warn("OpenWeatherMap circuit breaker: {}", event.getStateTransition()));
+    this.rateLimiter = rateLimiter;
+    this.concurrencyLimiter = concurrencyLimiter;
+    this.metrics = metrics;
+    this.API_KEY = API_KEY;
+  }
+
+  /**
+   * GET-запит до OpenWeatherMap, ключ API додається до URI
+   *
+   * @param uri          шаблон URI з параметрами запиту, без {@code appid}
+   * @param uriVariables змінні шаблону
+   * @return запит для {@code exchange}
+   */
+  public RestClient.RequestHeadersSpec<?> get(String uri, Object... uriVariables) {
+    Object[] variables = Arrays.copyOf(uriVariables, uriVariables.length + 1);
+    variables[uriVariables.length] = API_KEY;
+    return restClient.get().uri(uri + API_KEY_PARAM, variables);
+  }
+
+  /**
+   * Виконує виклик у межах лімітів та через circuit breaker. Помилки клієнта (404 та інші 4xx,
+   * див. {@link #checkStatus}) не вважаються збоєм.
+   * <p>
+   * Дозвіл breaker-а береться до токена {@link UpstreamRateLimiter}: поки breaker відкритий,
+   * запити відхиляються одразу і не витрачають ліміт, потрібний пробним запитам після паузи.
+   * Якщо токен не отримано, дозвіл повертається breaker-у без запису результату
+   *
+   * @param key      ключ запиту (місто або комірка) для логу
+   * @param priority пріоритет у черзі ліміту запитів
+   * @param call     виклик, напр. {@code get(...).exchange(...)}
+   * @return результат виклику
+   * @throws ServiceUnavailableException якщо виклик не вдався, breaker відкритий або ліміти
+   *                                     вичерпано
+   */
+  public <T> T execute(String key, RequestPriority priority, Supplier<T> call) {
+    return concurrencyLimiter.execute(priority, () -> {
+      if (!circuitBreaker.tryAcquirePermission()) {
+        throw new ServiceUnavailableException(UNAVAILABLE);
+      }
+      try {
+        rateLimiter.acquire(priority);
+      } catch (RuntimeException e) {
+        circuitBreaker.releasePermission();
+        throw e;
+      }
+
+      long start = circuitBreaker.getCurrentTimestamp();
+      try {
+        T result = call.get();
+        circuitBreaker.onResult(circuitBreaker.getCurrentTimestamp() - start,
+            circuitBreaker.getTimestampUnit(), result);
+        return result;
+      } catch (RuntimeException e) {
+        circuitBreaker.onError(circuitBreaker.getCurrentTimestamp() - start,
+            circuitBreaker.getTimestampUnit(), e);
+        throw translate(key, e);
+      }
+    });
+  }
+
+  private RuntimeException translate(String key, RuntimeException e) {
+    if (e instanceof RestClientResponseException) {
+      return new ServiceUnavailableException(UNAVAILABLE, e,
+          "Upstream request failed for '" + key + "'");
+    }
+    if (e instanceof RestClientException) {
+      metrics.upstreamIoError();
+      return new ServiceUnavailableException(UNAVAILABLE, e,
+          "Upstream request failed for '" + key + "'");
+    }
+    return e;
+  }
+
+  /**
+   * Обробка статусів відповіді: 404 — даних немає. 429 означає, що ліміт ключа вичерпано раніше,
+   * ніж очікував {@link UpstreamRateLimiter}, — його токени обнуляються, а клієнт отримує 503 з
+   * {@code Retry-After} від OpenWeatherMap. Інші 4xx спричинені параметрами запиту і стають
+   * {@link BadRequestException}, яку circuit breaker не рахує збоєм, — некоректні запити не
+   * можуть його відкрити. Винятки — 401 та 403: вони означають проблему з ключем API, тож
+   * лишаються збоями разом з 5xx (стандартні винятки {@link RestClient})
+   *
+   * @param res      відповідь
+   * @param notFound повідомлення для 404, напр. "Місто не знайдено: ..."
+   */
+  public void checkStatus(ClientHttpResponse res, String notFound) throws IOException {
+    int status = res.getStatusCode().value();
+    metrics.upstreamResponse(status);
+    if (status == 404) {
+      throw new ResourceNotFoundException(notFound);
+    }
+    if (status == 429) {
+      rateLimiter.onRateLimited();
+      throw new ServiceUnavailableException("Перевищено ліміт запитів до сервісу прогнозів",
+          retryAfter(res.getHeaders()));
+    }
+    if (res.getStatusCode().is4xxClientError() && status != 401 && status != 403) {
+      throw new BadRequestException("Некоректний запит до сервісу прогнозів: " + status);
+    }
+    if (errorHandler.hasError(res)) {
+      errorHandler.handleError(res);
+    }
+  }
+
+  private static Duration retryAfter(HttpHeaders headers) {
+    String value = headers.getFirst(HttpHeaders.RETRY_AFTER);
+    try {
+      return value != null ? Duration.ofSeconds(Long.parseLong(value.trim())) : DEFAULT_RETRY_AFTER;
+    } catch (NumberFormatException e) {
+      return DEFAULT_RETRY_AFTER;
+    }
+  }
+}
@@ -0,0 +1,80 @@
+package com.weather.api.service.impl;
+
+import static com.weather.api.service.impl.WindowAccumulator.round2;
+
+import com.weather.api.model.Forecast;
+import com.weather.api.model.Units;
+import com.weather.api.model.Wind;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Перераховує агрегований прогноз (дні або інші вікна) з метричної системи, в якій він
+ * завантажується, в іншу. Перерахунок лінійний, тому середні значення вікна зберігаються;
+ * результат округлюється так само, як при агрегації
+ */
+final class UnitConverter {
+
+  private static final double KELVIN_OFFSET = 273.15;
+  private static final double METERS_PER_SECOND_TO_MPH = 1 / 0.44704;
+
+  private UnitConverter() {
+  }
+
+  static List<Forecast> convert(List<Forecast> forecasts, Units units) {
+    if (units == Units.METRIC) {
+      return forecasts;
+    }
+
+    List<Forecast> converted = new ArrayList<>(forecasts.size());
+    for (Forecast source : forecasts) {
+      converted.add(convert(source, units));
+    }
+    return converted;
+  }
+
+  static Forecast convert(Forecast source, Units units) {
+    if (units == Units.METRIC) {
+      return source;
+    }
+
+    Forecast forecast = new Forecast();
+    forecast.setDate(source.getDate());
+    forecast.setTemperature(temperature(source.getTemperature(), units));
+    forecast.setFeelsLike(temperature(source.getFeelsLike(), units));
+    forecast.setMinTemperature(temperature(source.getMinTemperature(), units));
+    forecast.setMaxTemperature(temperature(source.getMaxTemperature(), units));
+    forecast.setPressure(source.getPressure());
+    forecast.setVisibility(source.getVisibility());
+    forecast.setHumidity(source.getHumidity());
+    forecast.setWeather(source.getWeather());
+    forecast.setCity(source.getCity());
+
+    if (source.getWind() != null) {
+      Wind wind = new Wind();
+      wind.setSpeed(speed(source.getWind().getSpeed(), units));
+      wind.setGust(speed(source.getWind().getGust(), units));
+      wind.setDeg(source.getWind().getDeg());
+      forecast.setWind(wind);
+    }
+    return forecast;
+  }
+
+  private static Double temperature(Double celsius, Units units) {
+    if (celsius == null) {
+      return null;
+    }
+    return switch (units) {
+      case METRIC -> celsius;
+      case IMPERIAL -> round2(celsius * 9 / 5 + 32);
+      case STANDARD -> round2(celsius + KELVIN_OFFSET);
+    };
+  }
+
+  private static Double speed(Double metersPerSecond, Units units) {
+    if (metersPerSecond == null || units != Units.IMPERIAL) {
+      return metersPerSecond;
+    }
+    return round2(metersPerSecond * METERS_PER_SECOND_TO_MPH);
+  }
+}
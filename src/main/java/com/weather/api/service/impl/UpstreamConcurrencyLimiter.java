@@ -0,0 +1,127 @@
+package com.weather.api.service.impl;
+
+import com.weather.api.exception.ServiceUnavailableException;
+import com.weather.api.service.contract.RequestPriority;
+import com.weather.api.shared.concurrent.AdaptiveConcurrencyLimit;
+import com.weather.api.shared.concurrent.AdaptiveConcurrencyLimit.Outcome;
+import com.weather.api.shared.exception.ResourceException;
+import com.weather.api.shared.exception.ResourceStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Адаптивний ліміт одночасних запитів, що потребують виклику OpenWeatherMap
+ * ({@link AdaptiveConcurrencyLimit}). Запити, які можна обслужити з кешу, сюди не потрапляють, тож
+ * мають пріоритет над промахами. Коли ліміт вичерпано, запит одразу отримує 503 з
+ * {@code Retry-After} замість очікування в черзі Tomcat; якщо для міста є останній відомий
+ * прогноз, віддається він. Пакетним запитам доступно {@value #BATCH_SHARE}, а фоновим оновленням —
+ * {@value #BACKGROUND_SHARE} ліміту, щоб вони не витісняли запити користувачів.
+ * <p>
+ * Затримка виклику включає очікування в {@link UpstreamRateLimiter}, тож вичерпаний ліміт
+ * тарифного плану теж зменшує ліміт одночасних запитів. Збоєм вважаються відповіді зі статусом
+ * 5xx, а 4xx (напр. місто не знайдено) — звичайною відповіддю.
+ * <p>
+ * Метрики: {@code upstream.concurrency.limit} — поточний ліміт, {@code
+ * upstream.concurrency.inflight} — виконувані запити, {@code
+ * upstream.concurrency.permits{priority,outcome}} — отримані та відхилені дозволи
+ */
+@Component
+public class UpstreamConcurrencyLimiter {
+
+  private static final double BATCH_SHARE = 0.75;
+  private static final double BACKGROUND_SHARE = 0.5;
+
+  private final AdaptiveConcurrencyLimit limit;
+  private final boolean enabled;
+  private final Duration retryAfter;
+  private final Map<RequestPriority, Counter> acquired = new EnumMap<>(RequestPriority.class);
+  private final Map<RequestPriority, Counter> rejected = new EnumMap<>(RequestPriority.class);
+
+  public UpstreamConcurrencyLimiter(
+      MeterRegistry meterRegistry,
+      @Value("${api.limiter.enabled}") boolean enabled,
+      @Value("${api.limiter.initial-limit}") int initialLimit,
+      @Value("${api.limiter.min-limit}") int minLimit,
+      @Value("${api.limiter.max-limit}") int maxLimit,
+      @Value("${api.limiter.tolerance}") double tolerance,
+      @Value("${api.limiter.backoff}") double backoff,
+      @Value("${api.limiter.max-latency}") Duration maxLatency,
+      @Value("${api.limiter.retry-after}") Duration retryAfter
+  ) {
+    this.limit = new AdaptiveConcurrencyLimit(initialLimit, minLimit, maxLimit, tolerance,
+        backoff, maxLatency.toNanos());
+    this.enabled = enabled;
+    this.retryAfter = retryAfter;
+
+    for (RequestPriority priority : RequestPriority.values()) {
+      String tag = priority.name().toLowerCase(Locale.ROOT);
+      acquired.put(priority, permits(meterRegistry, tag, "acquired"));
+      rejected.put(priority, permits(meterRegistry, tag, "rejected"));
+    }
+    Gauge.builder("upstream.concurrency.limit", limit, AdaptiveConcurrencyLimit::limit)
+        .description("Current adaptive limit of concurrent upstream-bound requests")
+        .register(meterRegistry);
+    Gauge.builder("upstream.concurrency.inflight", limit, AdaptiveConcurrencyLimit::inflight)
+        .description("Upstream-bound requests in flight")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Виконує виклик зовнішнього API в межах ліміту
+   *
+   * @param priority пріоритет запиту
+   * @param call     виклик
+   * @return результат виклику
+   * @throws ServiceUnavailableException якщо ліміт вичерпано
+   */
+  public <T> T execute(RequestPriority priority, Supplier<T> call) {
+    if (!enabled) {
+      return call.get();
+    }
+
+    long acquiredAt = limit.tryAcquire(share(priority));
+    if (acquiredAt < 0) {
+      rejected.get(priority).increment();
+      throw new ServiceUnavailableException("Сервіс прогнозів перевантажений", retryAfter);
+    }
+    acquired.get(priority).increment();
+
+    Outcome outcome = Outcome.DROPPED;
+    try {
+      T result = call.get();
+      outcome = Outcome.SUCCESS;
+      return result;
+    } catch (ResourceException e) {
+      if (ResourceStatus.of(e).code() < 500) {
+        outcome = Outcome.SUCCESS;
+      }
+      throw e;
+    } finally {
+      limit.release(acquiredAt, outcome);
+    }
+  }
+
+  private static double share(RequestPriority priority) {
+    return switch (priority) {
+      case INTERACTIVE -> 1;
+      case BATCH -> BATCH_SHARE;
+      case BACKGROUND -> BACKGROUND_SHARE;
+    };
+  }
+
+  private static Counter permits(MeterRegistry meterRegistry, String priority, String outcome) {
+    return Counter.builder("upstream.concurrency.permits")
+        .description("Adaptive concurrency limiter permits by request priority")
+        .tag("priority", priority)
+        .tag("outcome", outcome)
+        .register(meterRegistry);
+  }
+}
@@ -0,0 +1,104 @@
+package com.weather.api.service.impl;
+
+import com.weather.api.exception.ServiceUnavailableException;
+import com.weather.api.service.contract.RequestPriority;
+import com.weather.api.shared.concurrent.PriorityTokenBucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Ліміт викликів OpenWeatherMap відповідно до тарифного плану ключа ({@code calls-per-minute}).
+ * Коли токенів немає, виклики чекають у черзі за {@link RequestPriority} не довше
+ * {@code max-wait}, а якщо дочекатися не вийде — одразу отримують 503 з {@code Retry-After}.
+ * <p>
+ * Метрики: {@code upstream.ratelimit.permits{priority,outcome}} — отримані та відхилені токени,
+ * {@code upstream.ratelimit.utilization} — частка витрачених токенів, {@code
+ * upstream.ratelimit.queue} — кількість викликів у черзі
+ */
+@Component
+public class UpstreamRateLimiter {
+
+  private final PriorityTokenBucket bucket;
+  private final boolean enabled;
+  private final long maxWaitNanos;
+  private final Map<RequestPriority, Counter> acquired = new EnumMap<>(RequestPriority.class);
+  private final Map<RequestPriority, Counter> rejected = new EnumMap<>(RequestPriority.class);
+
+  public UpstreamRateLimiter(
+      MeterRegistry meterRegistry,
+      @Value("${api.ratelimit.enabled}") boolean enabled,
+      @Value("${api.ratelimit.calls-per-minute}") int callsPerMinute,
+      @Value("${api.ratelimit.burst}") int burst,
+      @Value("${api.ratelimit.max-wait}") Duration maxWait,
+      @Value("${api.ratelimit.max-queue}") int maxQueue
+  ) {
+    // Поповнення без запасу burst: за будь-яку хвилину не більше calls-per-minute викликів
+    double permitsPerSecond = Math.max(1, callsPerMinute - burst) / 60.0;
+    this.bucket = new PriorityTokenBucket(permitsPerSecond, burst, maxQueue);
+    this.enabled = enabled;
+    this.maxWaitNanos = maxWait.toNanos();
+
+    for (RequestPriority priority : RequestPriority.values()) {
+      String tag = priority.name().toLowerCase(Locale.ROOT);
+      acquired.put(priority, permits(meterRegistry, tag, "acquired"));
+      rejected.put(priority, permits(meterRegistry, tag, "rejected"));
+    }
+    Gauge.builder("upstream.ratelimit.utilization",
+            bucket, b -> 1 - b.availableTokens() / b.capacity())
+        .description("Share of the upstream call budget currently used")
+        .register(meterRegistry);
+    Gauge.builder("upstream.ratelimit.queue", bucket, PriorityTokenBucket::queueSize)
+        .description("Upstream calls waiting for the rate limiter")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Чекає на дозвіл виклику зовнішнього API
+   *
+   * @param priority пріоритет виклику
+   * @throws ServiceUnavailableException якщо ліміт вичерпано і дозвіл не з'явиться вчасно
+   */
+  public void acquire(RequestPriority priority) {
+    if (!enabled) {
+      return;
+    }
+
+    boolean permitted;
+    try {
+      permitted = bucket.tryAcquire(priority.ordinal(), maxWaitNanos);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      permitted = false;
+    }
+
+    if (permitted) {
+      acquired.get(priority).increment();
+      return;
+    }
+    rejected.get(priority).increment();
+    throw new ServiceUnavailableException("Перевищено ліміт запитів до сервісу прогнозів",
+        Duration.ofNanos(bucket.nanosUntilAvailable()));
+  }
+
+  /**
+   * Зовнішнє API відповіло 429: наявні токени вже не відповідають його лічильнику
+   */
+  public void onRateLimited() {
+    bucket.drain();
+  }
+
+  private static Counter permits(MeterRegistry meterRegistry, String priority, String outcome) {
+    return Counter.builder("upstream.ratelimit.permits")
+        .description("Upstream call permits by request priority")
+        .tag("priority", priority)
+        .tag("outcome", outcome)
+        .register(meterRegistry);
+  }
+}
@@ -0,0 +1,178 @@
+package com.weather.api.service.impl;
+
+import com.weather.api.model.Forecast;
+import com.weather.api.model.ForecastPoint;
+import com.weather.api.model.Weather;
+import com.weather.api.model.Wind;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Накопичувач метрик одного вікна (дня або частини доби) на примітивах: суми, мінімум/максимум і
+ * кількість періодів рахуються за один прохід, а {@link Forecast} та {@link Wind} створюються лише
+ * в {@link #toForecast(LocalDate)}. Екземпляр перевикористовується для наступного вікна
+ * через {@link #reset()}
+ */
+final class WindowAccumulator {
+
+  private static final double ROUNDING_EPSILON = 1e-9;
+
+  private int count;
+  private double temperature;
+  private double feelsLike;
+  private double minTemperature;
+  private double maxTemperature;
+  private double pressure;
+  private double humidity;
+  private double visibility;
+  private double windSpeed;
+  private double windGust;
+  // Напрямок вітру усереднюється як вектор, інакше 350° і 10° дають 180°
+  private double windDegSin;
+  private double windDegCos;
+
+  // Різних станів погоди за вікно зазвичай 1–3, тому лінійний пошук у масиві
+  private Weather[] weathers = new Weather[4];
+  private int[] weatherCounts = new int[4];
+  private int weatherSize;
+
+  WindowAccumulator() {
+    reset();
+  }
+
+  boolean isEmpty() {
+    return count == 0;
+  }
+
+  void add(ForecastPoint period) {
+    count++;
+    temperature += period.temperature();
+    feelsLike += period.feelsLike();
+    minTemperature = Math.min(minTemperature, period.minTemperature());
+    maxTemperature = Math.max(maxTemperature, period.maxTemperature());
+    pressure += period.pressure();
+    humidity += period.humidity();
+    visibility += period.visibility();
+    windSpeed += period.windSpeed();
+    windGust += period.windGust();
+    double radians = Math.toRadians(period.windDeg());
+    windDegSin += Math.sin(radians);
+    windDegCos += Math.cos(radians);
+
+    for (int i = 0; i < period.weathers().size(); i++) {
+      addWeather(period.weathers().get(i));
+    }
+  }
+
+  /**
+   * Підсумовує вікно: середні значення, екстремуми температури та найчастіший стан погоди
+   *
+   * @param date дата дня або початку вікна
+   * @return готовий прогноз на вікно (місто додає {@link ForecastAggregator})
+   */
+  Forecast toForecast(LocalDate date) {
+    Forecast forecast = new Forecast();
+    forecast.setDate(date);
+    forecast.setTemperature(round2(temperature / count));
+    forecast.setFeelsLike(round2(feelsLike / count));
+    forecast.setMinTemperature(round2(minTemperature));
+    forecast.setMaxTemperature(round2(maxTemperature));
+    forecast.setPressure(round2(pressure / count));
+    forecast.setVisibility(round2(visibility / count));
+    forecast.setHumidity(round2(humidity / count));
+    forecast.setWeather(oftenWeather());
+
+    Wind wind = new Wind();
+    wind.setSpeed(round2(windSpeed / count));
+    wind.setGust(round2(windGust / count));
+    wind.setDeg(averageDegrees());
+    forecast.setWind(wind);
+    return forecast;
+  }
+
+  void reset() {
+    count = 0;
+    temperature = 0;
+    feelsLike = 0;
+    minTemperature = Double.POSITIVE_INFINITY;
+    maxTemperature = Double.NEGATIVE_INFINITY;
+    pressure = 0;
+    humidity = 0;
+    visibility = 0;
+    windSpeed = 0;
+    windGust = 0;
+    windDegSin = 0;
+    windDegCos = 0;
+    Arrays.fill(weathers, 0, weatherSize, null);
+    weatherSize = 0;
+  }
+
+  /**
+   * Округлення до двох знаків після коми (HALF_UP, як {@code BigDecimal}) у фіксованій точці,
+   * без створення {@code BigDecimal}. Епсилон компенсує двійкове представлення значень на кшталт
+   * {@code 1.005}, що зберігаються як {@code 1.00499999...}
+   *
+   * @param value значення
+   * @return значення з двома знаками після коми
+   */
+  static double round2(double value) {
+    double abs = Math.abs(value);
+    if (!Double.isFinite(value) || abs >= Long.MAX_VALUE / 100.0) {
+      return value;
+    }
+
+    double scaled = abs * 100;
+    long whole = (long) scaled;
+    if (scaled - whole >= 0.5 - ROUNDING_EPSILON) {
+      whole++;
+    }
+    double rounded = whole / 100.0;
+    return value < 0 ? -rounded : rounded;
+  }
+
+  private void addWeather(Weather weather) {
+    for (int i = 0; i < weatherSize; i++) {
+      if (weathers[i].equals(weather)) {
+        weatherCounts[i]++;
+        return;
+      }
+    }
+
+    if (weatherSize == weathers.length) {
+      weathers = Arrays.copyOf(weathers, weatherSize * 2);
+      weatherCounts = Arrays.copyOf(weatherCounts, weatherSize * 2);
+    }
+    weathers[weatherSize] = weather;
+    weatherCounts[weatherSize] = 1;
+    weatherSize++;
+  }
+
+  /**
+   * Найчастіший стан погоди за вікно; за однакової кількості — той, що трапився раніше
+   */
+  private Weather oftenWeather() {
+    Weather weather = null;
+    int max = 0;
+    for (int i = 0; i < weatherSize; i++) {
+      if (weatherCounts[i] > max) {
+        weather = weathers[i];
+        max = weatherCounts[i];
+      }
+    }
+    return weather;
+  }
+
+  /**
+   * Середній напрямок в {@code [0, 360)}, округлений до двох знаків. Для 350° і 10° сума синусів —
+   * не рівно 0, а похибка порядку {@code -1e-17}, тож кут виходить {@code 360 - ε}, що після
+   * округлення стає 360°; такий напрямок повертається як 0°
+   */
+  private double averageDegrees() {
+    if (windDegSin == 0 && windDegCos == 0) {
+      return 0;
+    }
+    double degrees = Math.toDegrees(Math.atan2(windDegSin, windDegCos));
+    double rounded = round2(degrees < 0 ? degrees + 360 : degrees);
+    return rounded >= 360 ? rounded - 360 : rounded;
+  }
+}
@@ -0,0 +1,93 @@
+package com.weather.api.service.impl;
+
+import com.weather.api.model.AggregationWindow;
+import com.weather.api.model.Forecast;
+import com.weather.api.model.ForecastPoint;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneRules;
+
+/**
+ * Групує 3-годинні періоди у вікна {@link AggregationWindow} за часовим поясом сервера та
+ * підсумовує кожне вікно в {@link Forecast}. Періоди надходять у порядку часу, тому вікно
+ * закривається і передається далі, щойно приходить період наступного вікна, — у пам'яті завжди
+ * лише одне відкрите вікно
+ */
+final class WindowAggregator {
+
+  private final ZoneRules zoneRules = ZoneId.systemDefault().getRules();
+  private final Integer fixedOffset = zoneRules.isFixedOffset()
+      ? zoneRules.getOffset(Instant.EPOCH).getTotalSeconds()
+      : null;
+  private final WindowAccumulator accumulator = new WindowAccumulator();
+  private final long windowSeconds;
+  private final Sink sink;
+
+  private long currentWindow = Long.MIN_VALUE;
+
+  WindowAggregator(AggregationWindow window, Sink sink) {
+    this.windowSeconds = window.size().toSeconds();
+    this.sink = sink;
+  }
+
+  /**
+   * Додає період до поточного вікна
+   *
+   * @param period значення 3-годинного запису
+   */
+  void add(ForecastPoint period) {
+    long window = window(period.dt());
+
+    // Якщо це інше вікно — підсумовуємо попереднє
+    if (window != currentWindow && !accumulator.isEmpty()) {
+      closeWindow();
+    }
+    currentWindow = window;
+    accumulator.add(period);
+  }
+
+  /**
+   * Закриває останнє вікно
+   */
+  void finish() {
+    if (!accumulator.isEmpty()) {
+      closeWindow();
+    }
+  }
+
+  private void closeWindow() {
+    // Номер вікна рахується від місцевої епохи, тож це вже місцевий час
+    LocalDateTime start =
+        LocalDateTime.ofEpochSecond(currentWindow * windowSeconds, 0, ZoneOffset.UTC);
+    LocalDateTime end = start.plusSeconds(windowSeconds);
+    sink.accept(start, end, accumulator.toForecast(start.toLocalDate()));
+    accumulator.reset();
+  }
+
+  /**
+   * Номер вікна в місцевому часі. Для поясу з фіксованим зсувом обходиться без створення
+   * {@link Instant}
+   */
+  private long window(long timestamp) {
+    int offset = fixedOffset != null
+        ? fixedOffset
+        : zoneRules.getOffset(Instant.ofEpochSecond(timestamp)).getTotalSeconds();
+    return Math.floorDiv(timestamp + offset, windowSeconds);
+  }
+
+  /**
+   * Отримувач закритих вікон
+   */
+  @FunctionalInterface
+  interface Sink {
+
+    /**
+     * @param start    початок вікна в місцевому часі
+     * @param end      кінець вікна, не включно
+     * @param forecast підсумок вікна
+     */
+    void accept(LocalDateTime start, LocalDateTime end, Forecast forecast);
+  }
+}
@@ -0,0 +1,148 @@
+package com.weather.api.shared.concurrent;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Адаптивний ліміт одночасних викликів (AIMD за затримкою).
+ * <p>
+ * Виклик отримує дозвіл, лише поки кількість виконуваних викликів менша за поточний ліміт, інакше
+ * одразу отримує відмову — без черги. Після завершення виклику його затримка порівнюється з
+ * базовою (ковзне середнє успішних викликів): якщо вона більша за базову в {@code tolerance}
+ * разів або за {@code maxLatencyNanos}, або виклик завершився збоєм, ліміт зменшується в
+ * {@code backoff} разів — не частіше ніж раз за базову затримку, щоб одна хвиля повільних
+ * відповідей не обвалила його до мінімуму. Інакше, якщо ліміт використовувався хоча б наполовину,
+ * він зростає на {@code 1 / limit}, тобто приблизно на одиницю за кожні {@code limit} викликів
+ */
+public final class AdaptiveConcurrencyLimit {
+
+  // Вага нового виміру в базовій затримці
+  private static final double BASELINE_WEIGHT = 0.05;
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final int minLimit;
+  private final int maxLimit;
+  private final double tolerance;
+  private final double backoff;
+  private final long maxLatencyNanos;
+  private double limit;
+  private int inflight;
+  private double baselineNanos;
+  private long decreasedAt;
+
+  public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double tolerance,
+      double backoff, long maxLatencyNanos) {
+    this.minLimit = Math.max(1, minLimit);
+    this.maxLimit = Math.max(this.minLimit, maxLimit);
+    this.tolerance = tolerance;
+    this.backoff = backoff;
+    this.maxLatencyNanos = maxLatencyNanos;
+    this.limit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+    this.decreasedAt = System.nanoTime() - maxLatencyNanos;
+  }
+
+  /**
+   * Дозвіл на виклик, якщо виконуваних викликів менше за {@code share} від ліміту
+   *
+   * @param share частка ліміту, доступна виклику, напр. менша для фонових викликів
+   * @return час отримання дозволу для {@link #release} або {@code -1}, якщо ліміт вичерпано
+   */
+  public long tryAcquire(double share) {
+    lock.lock();
+    try {
+      if (inflight >= Math.max(1, Math.floor(limit * share))) {
+        return -1;
+      }
+      inflight++;
+      return System.nanoTime();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Завершення виклику, що отримав дозвіл
+   *
+   * @param acquiredAt значення від {@link #tryAcquire}
+   * @param outcome    результат виклику
+   */
+  public void release(long acquiredAt, Outcome outcome) {
+    long now = System.nanoTime();
+    long latency = now - acquiredAt;
+    lock.lock();
+    try {
+      boolean utilized = inflight * 2 >= limit;
+      inflight--;
+      switch (outcome) {
+        case DROPPED -> decrease(now);
+        case SUCCESS -> {
+          if (baselineNanos > 0
+              && (latency > baselineNanos * tolerance || latency > maxLatencyNanos)) {
+            decrease(now);
+          } else if (utilized) {
+            limit = Math.min(maxLimit, limit + 1 / limit);
+          }
+          double sample = Math.min(latency, maxLatencyNanos);
+          baselineNanos = baselineNanos > 0
+              ? baselineNanos + BASELINE_WEIGHT * (sample - baselineNanos) : sample;
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public int limit() {
+    lock.lock();
+    try {
+      return (int) limit;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public int inflight() {
+    lock.lock();
+    try {
+      return inflight;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * @return базова затримка успішного виклику в мілісекундах або {@code 0}, поки її не виміряно
+   */
+  public double baselineMillis() {
+    lock.lock();
+    try {
+      return baselineNanos / TimeUnit.MILLISECONDS.toNanos(1);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void decrease(long now) {
+    long interval = (long) Math.min(baselineNanos, maxLatencyNanos);
+    if (now - decreasedAt >= interval) {
+      limit = Math.max(minLimit, limit * backoff);
+      decreasedAt = now;
+    }
+  }
+
+  /**
+   * Результат виклику для оновлення ліміту
+   */
+  public enum Outcome {
+
+    /**
+     * Відповідь отримано, її затримка враховується
+     */
+    SUCCESS,
+
+    /**
+     * Збій або тайм-аут — ознака перевантаження
+     */
+    DROPPED
+  }
+}
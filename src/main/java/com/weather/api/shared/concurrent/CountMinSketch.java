@@ -0,0 +1,57 @@
+package com.weather.api.shared.concurrent;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Потокобезпечний count-min sketch з «затуханням»: оцінює частоту ключів у фіксованій пам'яті
+ * (оцінка може бути завищеною, але не заниженою). {@link #decay()} ділить усі лічильники навпіл,
+ * тож давня популярність поступово забувається
+ */
+public final class CountMinSketch {
+
+  private static final int DEPTH = 4;
+  private static final int[] SEEDS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+
+  private final AtomicIntegerArray table;
+  private final int width;
+  private final int mask;
+
+  /**
+   * @param width кількість лічильників у рядку, округлюється до степеня двійки
+   */
+  public CountMinSketch(int width) {
+    this.width = Integer.highestOneBit(Math.max(16, width - 1) << 1);
+    this.mask = this.width - 1;
+    this.table = new AtomicIntegerArray(DEPTH * this.width);
+  }
+
+  public void increment(Object key) {
+    int hash = key.hashCode();
+    for (int row = 0; row < DEPTH; row++) {
+      int index = row * width + index(hash, row);
+      if (table.get(index) < Integer.MAX_VALUE) {
+        table.incrementAndGet(index);
+      }
+    }
+  }
+
+  public int estimate(Object key) {
+    int hash = key.hashCode();
+    int min = Integer.MAX_VALUE;
+    for (int row = 0; row < DEPTH; row++) {
+      min = Math.min(min, table.get(row * width + index(hash, row)));
+    }
+    return min;
+  }
+
+  public void decay() {
+    for (int i = 0; i < table.length(); i++) {
+      table.updateAndGet(i, count -> count >>> 1);
+    }
+  }
+
+  private int index(int hash, int row) {
+    int h = (hash ^ SEEDS[row]) * SEEDS[row];
+    return (h ^ (h >>> 16)) & mask;
+  }
+}
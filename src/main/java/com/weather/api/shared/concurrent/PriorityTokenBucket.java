@@ -0,0 +1,165 @@
+package com.weather.api.shared.concurrent;
+
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Token bucket з чергою очікування за пріоритетом.
+ * <p>
+ * Токени поповнюються рівномірно зі швидкістю {@code permitsPerSecond} до {@code capacity}. Якщо
+ * токена немає, виклик стає в чергу: першим токен отримує виклик з меншим значенням пріоритету, а
+ * серед рівних — той, що чекає довше. Виклик не стає в чергу, якщо вона заповнена або якщо
+ * очікуваний час до його черги перевищує допустиме очікування — тоді він одразу отримує відмову
+ */
+public final class PriorityTokenBucket {
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final PriorityQueue<Waiter> waiters = new PriorityQueue<>();
+  private final double capacity;
+  private final double permitsPerNano;
+  private final int maxQueue;
+  private double tokens;
+  private long refilledAt;
+  private long sequence;
+
+  public PriorityTokenBucket(double permitsPerSecond, int capacity, int maxQueue) {
+    this.capacity = Math.max(1, capacity);
+    this.permitsPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+    this.maxQueue = maxQueue;
+    this.tokens = this.capacity;
+    this.refilledAt = System.nanoTime();
+  }
+
+  /**
+   * Бере токен, за потреби чекаючи в черзі не довше {@code maxWaitNanos}
+   *
+   * @param priority     пріоритет виклику, менше значення обслуговується раніше
+   * @param maxWaitNanos найбільший допустимий час очікування
+   * @return {@code true}, якщо токен отримано
+   */
+  public boolean tryAcquire(int priority, long maxWaitNanos) throws InterruptedException {
+    lock.lock();
+    try {
+      long now = System.nanoTime();
+      refill(now);
+      if (waiters.isEmpty() && tokens >= 1) {
+        tokens -= 1;
+        return true;
+      }
+
+      int ahead = waitersAhead(priority);
+      if (waiters.size() >= maxQueue || nanosUntil(ahead + 1) > maxWaitNanos) {
+        return false;
+      }
+
+      Waiter waiter = new Waiter(priority, sequence++, lock.newCondition());
+      waiters.add(waiter);
+      long deadline = now + maxWaitNanos;
+      try {
+        while (true) {
+          now = System.nanoTime();
+          refill(now);
+          if (waiters.peek() == waiter && tokens >= 1) {
+            tokens -= 1;
+            return true;
+          }
+          long remaining = deadline - now;
+          if (remaining <= 0) {
+            return false;
+          }
+          long pause = waiters.peek() == waiter ? Math.max(1, nanosUntil(1)) : remaining;
+          waiter.ready.awaitNanos(Math.min(pause, remaining));
+        }
+      } finally {
+        waiters.remove(waiter);
+        Waiter head = waiters.peek();
+        if (head != null) {
+          head.ready.signal();
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Забирає всі наявні токени, напр. коли зовнішнє API вже повідомило про перевищення ліміту
+   */
+  public void drain() {
+    lock.lock();
+    try {
+      refill(System.nanoTime());
+      tokens = 0;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * @return через скільки наносекунд з'явиться токен для нового виклику з найнижчим пріоритетом
+   */
+  public long nanosUntilAvailable() {
+    lock.lock();
+    try {
+      refill(System.nanoTime());
+      return nanosUntil(waiters.size() + 1);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public double availableTokens() {
+    lock.lock();
+    try {
+      refill(System.nanoTime());
+      return tokens;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public double capacity() {
+    return capacity;
+  }
+
+  public int queueSize() {
+    lock.lock();
+    try {
+      return waiters.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void refill(long now) {
+    tokens = Math.min(capacity, tokens + (now - refilledAt) * permitsPerNano);
+    refilledAt = now;
+  }
+
+  private int waitersAhead(int priority) {
+    int ahead = 0;
+    for (Waiter waiter : waiters) {
+      if (waiter.priority <= priority) {
+        ahead++;
+      }
+    }
+    return ahead;
+  }
+
+  private long nanosUntil(int permits) {
+    double missing = permits - tokens;
+    return missing <= 0 ? 0 : (long) Math.ceil(missing / permitsPerNano);
+  }
+
+  private record Waiter(int priority, long sequence, Condition ready)
+      implements Comparable<Waiter> {
+
+    @Override
+    public int compareTo(Waiter other) {
+      int byPriority = Integer.compare(priority, other.priority);
+      return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+    }
+  }
+}
@@ -0,0 +1,80 @@
+package com.weather.api.shared.concurrent;
+
+import com.weather.api.exception.ServiceUnavailableException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Реєстр запитів «у польоті»: поки для ключа виконується завантаження, усі інші виклики з тим
+ * самим ключем не запускають власне, а чекають на спільний результат. Результат (або виняток)
+ * отримує кожен, хто чекав.
+ *
+ * @param <K> тип ключа
+ * @param <V> тип результату
+ */
+public final class SingleFlight<K, V> {
+
+  private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+  private final Duration timeout;
+
+  /**
+   * @param timeout скільки максимум чекає виклик, що приєднався до вже запущеного завантаження
+   */
+  public SingleFlight(Duration timeout) {
+    this.timeout = timeout;
+  }
+
+  /**
+   * Виконує {@code loader} лише один раз для всіх одночасних викликів з однаковим ключем
+   *
+   * @param key    ключ, за яким об'єднуються виклики
+   * @param loader завантаження, що виконується у потоці першого виклику
+   * @return спільний результат
+   * @throws ServiceUnavailableException якщо спільний результат не отримано за {@code timeout}
+   */
+  public V execute(K key, Supplier<V> loader) {
+    CompletableFuture<V> created = new CompletableFuture<>();
+    CompletableFuture<V> existing = inFlight.putIfAbsent(key, created);
+    if (existing != null) {
+      return await(key, existing);
+    }
+
+    try {
+      V value = loader.get();
+      created.complete(value);
+      return value;
+    } catch (RuntimeException | Error e) {
+      created.completeExceptionally(e);
+      throw e;
+    } finally {
+      inFlight.remove(key, created);
+    }
+  }
+
+  private V await(K key, CompletableFuture<V> future) {
+    try {
+      return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException runtime) {
+        throw runtime;
+      }
+      if (cause instanceof Error error) {
+        throw error;
+      }
+      throw new IllegalStateException(cause);
+    } catch (TimeoutException e) {
+      throw new ServiceUnavailableException(
+          "Час очікування відповіді для '" + key + "' вичерпано", e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ServiceUnavailableException("Очікування відповіді перервано", e);
+    }
+  }
+}
@@ -0,0 +1,101 @@
+package com.weather.api.shared.exception;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.weather.api.shared.model.ErrorResponse;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Готові JSON-тіла {@link ErrorResponse}. Частина тіла, що залежить лише від статусу та його
+ * опису, серіалізується один раз для кожної пари, а на кожну відповідь вставляються час,
+ * екрановані повідомлення і шлях та деталі, якщо вони є. Повідомлення часто містить назву міста
+ * з запиту, тому в ключ шаблону воно не входить — шаблонів стільки, скільки статусів, і кеш не
+ * витісняється запитами з різними назвами. Відповідь на помилку обходиться без графа об'єктів і
+ * повної серіалізації Jackson.
+ * <p>
+ * Поля йдуть у тому самому порядку, що й у {@link ErrorResponse}, а час записується так само, як
+ * Jackson пише {@code OffsetDateTime} ({@code ISO_OFFSET_DATE_TIME} зі зсувом значення)
+ */
+final class ErrorBodies {
+
+  private static final byte[] TIMESTAMP = "{\"timestamp\":\"".getBytes(StandardCharsets.UTF_8);
+  private static final byte[] MESSAGE = ",\"message\":".getBytes(StandardCharsets.UTF_8);
+  private static final byte[] PATH = ",\"path\":".getBytes(StandardCharsets.UTF_8);
+  private static final byte[] DETAILS = ",\"details\":".getBytes(StandardCharsets.UTF_8);
+  private static final byte[] NULL = "null".getBytes(StandardCharsets.US_ASCII);
+
+  private final ObjectMapper objectMapper;
+  private final Map<Key, byte[]> templates = new ConcurrentHashMap<>();
+
+  ErrorBodies(ObjectMapper objectMapper) {
+    this.objectMapper = objectMapper;
+  }
+
+  /**
+   * @param timestamp коли сталася помилка
+   * @param path      URI запиту
+   * @return тіло, ідентичне серіалізованому {@link ErrorResponse} з тими самими значеннями
+   */
+  byte[] render(OffsetDateTime timestamp, int status, String error, String message, String path,
+      Object details) {
+    byte[] head = templates.computeIfAbsent(new Key(status, error), this::template);
+    byte[] time = DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(timestamp)
+        .getBytes(StandardCharsets.US_ASCII);
+    byte[] quotedMessage = quote(message);
+    byte[] quotedPath = quote(path);
+    byte[] serializedDetails = details == null ? NULL : serialize(details);
+
+    ByteArrayOutputStream body = new ByteArrayOutputStream(TIMESTAMP.length + time.length
+        + head.length + MESSAGE.length + quotedMessage.length + PATH.length + quotedPath.length
+        + DETAILS.length + serializedDetails.length + 1);
+    body.writeBytes(TIMESTAMP);
+    body.writeBytes(time);
+    body.writeBytes(head);
+    body.writeBytes(MESSAGE);
+    body.writeBytes(quotedMessage);
+    body.writeBytes(PATH);
+    body.writeBytes(quotedPath);
+    body.writeBytes(DETAILS);
+    body.writeBytes(serializedDetails);
+    body.write('}');
+    return body.toByteArray();
+  }
+
+  /**
+   * {@code ","status":...,"error":...}
+   */
+  private byte[] template(Key key) {
+    return ("\",\"status\":" + key.status() + ",\"error\":" + new String(quote(key.error()),
+        StandardCharsets.UTF_8)).getBytes(StandardCharsets.UTF_8);
+  }
+
+  private byte[] serialize(Object details) {
+    try {
+      return objectMapper.writeValueAsBytes(details);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Cannot serialize error details", e);
+    }
+  }
+
+  private static byte[] quote(String value) {
+    if (value == null) {
+      return NULL;
+    }
+    byte[] escaped = JsonStringEncoder.getInstance().quoteAsUTF8(value);
+    byte[] quoted = new byte[escaped.length + 2];
+    quoted[0] = '"';
+    System.arraycopy(escaped, 0, quoted, 1, escaped.length);
+    quoted[quoted.length - 1] = '"';
+    return quoted;
+  }
+
+  private record Key(int status, String error) {
+
+  }
+}
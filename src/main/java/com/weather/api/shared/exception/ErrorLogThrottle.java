@@ -0,0 +1,46 @@
+package com.weather.api.shared.exception;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Обмежує логування однотипних помилок: для кожного ключа (напр. класу винятку та його причини)
+ * повний запис зі стеком дозволяється не частіше ніж раз на {@code interval}, решта лише
+ * рахується. Коли зовнішнє API недоступне, кожен запит інакше писав би в лог той самий стек
+ */
+final class ErrorLogThrottle {
+
+  private final long intervalNanos;
+  private final ConcurrentMap<String, Window> windows = new ConcurrentHashMap<>();
+
+  ErrorLogThrottle(Duration interval) {
+    this.intervalNanos = interval.toNanos();
+  }
+
+  /**
+   * @return кількість пропущених з останнього запису помилок з цим ключем, якщо цю треба
+   * записати, або {@code -1}, якщо її слід пропустити
+   */
+  long acquire(String key) {
+    if (intervalNanos <= 0) {
+      return 0;
+    }
+    Window window = windows.computeIfAbsent(key, k -> new Window());
+    long now = System.nanoTime();
+    long last = window.loggedAt.get();
+    if (last != Long.MIN_VALUE && now - last < intervalNanos
+        || !window.loggedAt.compareAndSet(last, now)) {
+      window.suppressed.incrementAndGet();
+      return -1;
+    }
+    return window.suppressed.getAndSet(0);
+  }
+
+  private static final class Window {
+
+    private final AtomicLong loggedAt = new AtomicLong(Long.MIN_VALUE);
+    private final AtomicLong suppressed = new AtomicLong();
+  }
+}
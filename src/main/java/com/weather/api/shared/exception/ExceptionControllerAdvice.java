@@ -3,16 +3,20 @@ package com.weather.api.shared.exception;
 import static org.springframework.http.HttpStatus.BAD_REQUEST;
 import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.weather.api.shared.model.ErrorResponse;
+import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.http.HttpStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
-import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.context.request.WebRequest;
@@ -21,6 +25,20 @@ import org.springframework.web.context.request.WebRequest;
 @RestControllerAdvice
 public final class ExceptionControllerAdvice {
 
+  private static final String INTERNAL_ERROR_MESSAGE =
+      "An unexpected server error occurred. Please try again later or contact support.";
+
+  private final ErrorLogThrottle logThrottle;
+  private final ErrorBodies bodies;
+
+  public ExceptionControllerAdvice(
+      ObjectMapper objectMapper,
+      @Value("${api.errors.log-interval}") Duration logInterval
+  ) {
+    this.logThrottle = new ErrorLogThrottle(logInterval);
+    this.bodies = new ErrorBodies(objectMapper);
+  }
+
   @ExceptionHandler(MethodArgumentNotValidException.class)
   public ResponseEntity<ErrorResponse> handleValidationExceptions(
       MethodArgumentNotValidException ex, WebRequest request) {
@@ -44,7 +62,16 @@ public final class ExceptionControllerAdvice {
   /**
    * Ловить усі винятки що наслідуються від {@link ResourceException}, таким чином цей клас виступає
    * обгорткою над іншими винятками. Це дозволяє мати визначений ряд винятків, які вертають статус
-   * код (і не тільки його), стандартизовано, уникаючи створення подібних винятків
+   * код (і не тільки його), стандартизовано, уникаючи створення подібних винятків.
+   * <p>
+   * Статус класу винятку визначається один раз, див. {@link ResourceStatus}. Очікувані результати
+   * (404, 400) не логуються, а {@code messageLog} пишеться зі стеком не частіше ніж раз на
+   * {@code api.errors.log-interval} для кожного типу помилки.
+   * <p>
+   * Клієнтам, що приймають JSON, тіло віддається готовими байтами з {@link ErrorBodies} — без
+   * {@link ErrorResponse} та повної серіалізації на кожну помилку. Для інших форматів
+   * ({@code Accept: application/cbor} тощо) {@link ErrorResponse} серіалізує відповідний
+   * конвертер Spring
    *
    * @param ex      виняток базовий або його наслідувачі
    * @param request запит для витягування URI
@@ -52,34 +79,76 @@ public final class ExceptionControllerAdvice {
    * помилку для клієнта
    */
   @ExceptionHandler(ResourceException.class)
-  public ResponseEntity<ErrorResponse> apiHandlerExceptions(
-      ResourceException ex, WebRequest request) {
+  public ResponseEntity<?> apiHandlerExceptions(ResourceException ex, WebRequest request) {
     if (ex.getMessageLog() != null && !ex.getMessageLog().isEmpty()) {
+      logThrottled(ex);
+    }
+
+    ResourceStatus status = ResourceStatus.of(ex);
+    String path = ((ServletWebRequest) request).getRequest().getRequestURI();
+    if (status.declared()) {
+      return error(request, status.code(), status.reason(), ex.getMessage(), path,
+          ex.getDetails(), retryAfter(ex));
+    }
+    return error(request, INTERNAL_SERVER_ERROR.value(), INTERNAL_SERVER_ERROR.getReasonPhrase(),
+        INTERNAL_ERROR_MESSAGE, path, null, HttpHeaders.EMPTY);
+  }
+
+  private ResponseEntity<?> error(WebRequest request, int code, String reason, String message,
+      String path, Object details, HttpHeaders headers) {
+    ResponseEntity.BodyBuilder response = ResponseEntity.status(code).headers(headers);
+    OffsetDateTime timestamp = OffsetDateTime.now();
+    if (!acceptsJson(request.getHeader(HttpHeaders.ACCEPT))) {
+      return response.body(new ErrorResponse(timestamp, code, reason, message, path, details));
+    }
+    return response
+        .contentType(MediaType.APPLICATION_JSON)
+        .body(bodies.render(timestamp, code, reason, message, path, details));
+  }
+
+  private void logThrottled(ResourceException ex) {
+    Throwable cause = ex.getCause();
+    String key = cause == null
+        ? ex.getClass().getName() : ex.getClass().getName() + "/" + cause.getClass().getName();
+    long suppressed = logThrottle.acquire(key);
+    if (suppressed > 0) {
+      log.error("{} ({} similar errors suppressed)", ex.getMessageLog(), suppressed, ex);
+    } else if (suppressed == 0) {
       log.error(ex.getMessageLog(), ex);
     }
+  }
 
-    Class<?> clazz = ex.getClass();
-    log.info("Class: {}", clazz);
-    if (clazz.isAnnotationPresent(ResponseStatus.class)) {
-      ResponseStatus annotation = clazz.getAnnotation(ResponseStatus.class);
-      HttpStatus status = annotation.value();
-      int code = status.value();
-
-      return ResponseEntity.status(code).body(new ErrorResponse(
-          OffsetDateTime.now(), code,
-          status.getReasonPhrase(),
-          ex.getMessage(),
-          ((ServletWebRequest) request).getRequest().getRequestURI(), null
-      ));
+  /**
+   * Чи можна віддати готове JSON-тіло: заголовка {@code Accept} немає або кожен прийнятний тип
+   * включає {@code application/json}, і JSON не відхилено через {@code q=0}
+   */
+  private static boolean acceptsJson(String accept) {
+    if (accept == null || accept.isBlank()) {
+      return true;
     }
 
-    return ResponseEntity.status(INTERNAL_SERVER_ERROR).body(new ErrorResponse(
-        OffsetDateTime.now(),
-        INTERNAL_SERVER_ERROR.value(),
-        INTERNAL_SERVER_ERROR.getReasonPhrase(),
-        "An unexpected server error occurred. Please try again later or contact support.",
-        ((ServletWebRequest) request).getRequest().getRequestURI(),
-        null
-    ));
+    try {
+      for (MediaType type : MediaType.parseMediaTypes(accept)) {
+        boolean json = type.includes(MediaType.APPLICATION_JSON);
+        if (type.getQualityValue() == 0 && json || type.getQualityValue() > 0 && !json) {
+          return false;
+        }
+      }
+      return true;
+    } catch (InvalidMediaTypeException e) {
+      return false;
+    }
+  }
+
+  /**
+   * {@code Retry-After} у секундах (з округленням угору), якщо виняток його визначає
+   */
+  private static HttpHeaders retryAfter(ResourceException ex) {
+    HttpHeaders headers = new HttpHeaders();
+    if (ex.getRetryAfter() != null) {
+      long seconds = Math.max(1, (ex.getRetryAfter().toMillis() + 999) / 1000);
+      headers.set(HttpHeaders.RETRY_AFTER, Long.toString(seconds));
+    }
+    return headers;
   }
 }
@@ -1,8 +1,12 @@
 package com.weather.api.shared.exception;
 
+import java.time.Duration;
+
 public class ResourceException extends RuntimeException {
 
   private String messageLog;
+  private Duration retryAfter;
+  private Object details;
 
   public ResourceException(String message) {
     super(message);
@@ -17,6 +21,15 @@ public class ResourceException extends RuntimeException {
     this.messageLog = messageLog;
   }
 
+  /**
+   * @param stackTrace чи заповнювати стек викликів. Очікувані результати (місто не знайдено,
+   *                   некоректний запит) створюються без стеку: він не потрапляє ні у
+   *                   відповідь, ні в лог, а його заповнення — найдорожча частина винятку
+   */
+  protected ResourceException(String message, Throwable cause, boolean stackTrace) {
+    super(message, cause, true, stackTrace);
+  }
+
   public String getMessageLog() {
     return messageLog;
   }
@@ -24,4 +37,27 @@ public class ResourceException extends RuntimeException {
   public void setMessageLog(String messageLog) {
     this.messageLog = messageLog;
   }
+
+  /**
+   * @return через скільки клієнту варто повторити запит (заголовок {@code Retry-After}) або
+   * {@code null}
+   */
+  public Duration getRetryAfter() {
+    return retryAfter;
+  }
+
+  public void setRetryAfter(Duration retryAfter) {
+    this.retryAfter = retryAfter;
+  }
+
+  /**
+   * @return додаткові дані для {@code details} відповіді з помилкою або {@code null}
+   */
+  public Object getDetails() {
+    return details;
+  }
+
+  public void setDetails(Object details) {
+    this.details = details;
+  }
 }
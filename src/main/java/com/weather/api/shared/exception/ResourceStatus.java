@@ -0,0 +1,37 @@
+package com.weather.api.shared.exception;
+
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Статус відповіді для класу {@link ResourceException} з його анотації {@link ResponseStatus}.
+ * Анотація читається один раз для кожного класу, далі статус береться з {@link ClassValue} без
+ * рефлексії
+ *
+ * @param code     код статусу
+ * @param reason   короткий опис статусу, напр. "Not Found"
+ * @param declared {@code false}, якщо клас не має анотації — тоді статус {@code 500}
+ */
+public record ResourceStatus(int code, String reason, boolean declared) {
+
+  private static final ResourceStatus UNDECLARED =
+      new ResourceStatus(HttpStatus.INTERNAL_SERVER_ERROR, false);
+
+  private static final ClassValue<ResourceStatus> STATUSES = new ClassValue<>() {
+    @Override
+    protected ResourceStatus computeValue(Class<?> type) {
+      ResponseStatus annotation =
+          AnnotatedElementUtils.findMergedAnnotation(type, ResponseStatus.class);
+      return annotation != null ? new ResourceStatus(annotation.code(), true) : UNDECLARED;
+    }
+  };
+
+  private ResourceStatus(HttpStatus status, boolean declared) {
+    this(status.value(), status.getReasonPhrase(), declared);
+  }
+
+  public static ResourceStatus of(ResourceException ex) {
+    return STATUSES.get(ex.getClass());
+  }
+}
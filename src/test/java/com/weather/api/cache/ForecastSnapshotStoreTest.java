@@ -0,0 +1,171 @@
+package com.weather.api.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.weather.api.model.ForecastPoint;
+import com.weather.api.model.Weather;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Журнал знімка після аварійної зупинки: обрізаний або пошкоджений запис відкидає лише хвіст
+ * журналу, а компактизація переписує файл без нього
+ */
+class ForecastSnapshotStoreTest {
+
+  private static final Duration RETENTION = Duration.ofHours(1);
+  private static final Duration TTL = Duration.ofMinutes(10);
+  private static final int MAGIC_BYTES = Integer.BYTES;
+  private static final int HEADER_BYTES = Integer.BYTES * 2;
+  // Записи мають бути в межах зберігання, а час у журналі — з точністю до мілісекунд
+  private static final Instant FETCHED_AT =
+      Instant.now().truncatedTo(ChronoUnit.SECONDS).minus(Duration.ofMinutes(5));
+
+  private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+      .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+      .build();
+
+  @TempDir
+  Path dir;
+
+  private Path path;
+  private ForecastSnapshotStore store;
+  private byte[] journal;
+  private List<Integer> offsets;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    path = dir.resolve("forecasts.snapshot");
+    store = new ForecastSnapshotStore(objectMapper, true, path);
+    store.append("kyiv", entry("kyiv", 10));
+    store.append("lviv", entry("lviv", 20));
+    store.append("odesa", entry("odesa", 30));
+    store.close();
+    journal = Files.readAllBytes(path);
+    offsets = recordOffsets(journal);
+    assertThat(offsets).hasSize(4);
+  }
+
+  @AfterEach
+  void tearDown() throws IOException {
+    store.close();
+  }
+
+  @Test
+  void intactJournalLoadsAllRecords() {
+    Map<String, ForecastEntry> entries = store.load(RETENTION, TTL);
+
+    assertThat(entries).containsOnlyKeys("kyiv", "lviv", "odesa");
+    ForecastEntry kyiv = entries.get("kyiv");
+    ForecastEntry expected = entry("kyiv", 10);
+    assertThat(kyiv.etag()).isEqualTo(expected.etag());
+    assertThat(kyiv.json()).isEqualTo(expected.json());
+    assertThat(kyiv.gzip()).isEqualTo(expected.gzip());
+    assertThat(kyiv.fetchedAt()).isEqualTo(expected.fetchedAt());
+    assertThat(kyiv.periods()).isEqualTo(expected.periods());
+  }
+
+  @Test
+  void recordCutMidwayDropsOnlyTail() throws IOException {
+    int cut = (offsets.get(2) + offsets.get(3)) / 2;
+    Files.write(path, Arrays.copyOf(journal, cut));
+
+    assertThat(store.load(RETENTION, TTL)).containsOnlyKeys("kyiv", "lviv");
+  }
+
+  @Test
+  void headerCutMidwayDropsOnlyTail() throws IOException {
+    Files.write(path, Arrays.copyOf(journal, offsets.get(2) + Integer.BYTES + 1));
+
+    assertThat(store.load(RETENTION, TTL)).containsOnlyKeys("kyiv", "lviv");
+  }
+
+  @Test
+  void flippedChecksumDropsRecordAndTail() throws IOException {
+    byte[] corrupt = journal.clone();
+    corrupt[offsets.get(1) + Integer.BYTES] ^= 0x01;
+    Files.write(path, corrupt);
+
+    assertThat(store.load(RETENTION, TTL)).containsOnlyKeys("kyiv");
+  }
+
+  @Test
+  void flippedDataByteDropsRecordAndTail() throws IOException {
+    byte[] corrupt = journal.clone();
+    corrupt[offsets.get(3) - 1] ^= 0x40;
+    Files.write(path, corrupt);
+
+    assertThat(store.load(RETENTION, TTL)).containsOnlyKeys("kyiv", "lviv");
+  }
+
+  @Test
+  void compactionRewritesCleanJournal() throws IOException {
+    byte[] corrupt = Arrays.copyOf(journal, offsets.get(3) - 3);
+    corrupt[offsets.get(2) + Integer.BYTES] ^= 0x01;
+    Files.write(path, corrupt);
+
+    Map<String, ForecastEntry> entries = store.load(RETENTION, TTL);
+    store.compact(entries);
+
+    // Вцілілі записи переписуються байт у байт, без пошкодженого хвоста
+    assertThat(Files.readAllBytes(path)).isEqualTo(Arrays.copyOf(journal, offsets.get(2)));
+    assertThat(Files.exists(path.resolveSibling(path.getFileName() + ".tmp"))).isFalse();
+
+    // Нові записи дописуються після чистого журналу і читаються
+    store.append("odesa", entry("odesa", 30));
+    store.close();
+    assertThat(store.load(RETENTION, TTL)).containsOnlyKeys("kyiv", "lviv", "odesa");
+  }
+
+  @Test
+  void latestRecordOfKeyWins() throws IOException {
+    store.append("kyiv", entry("kyiv", 40));
+    store.close();
+
+    assertThat(store.load(RETENTION, TTL).get("kyiv").etag())
+        .isEqualTo(entry("kyiv", 40).etag());
+  }
+
+  /**
+   * Зміщення кожного запису після заголовка файлу та кінець останнього запису
+   */
+  private static List<Integer> recordOffsets(byte[] journal) {
+    List<Integer> offsets = new ArrayList<>();
+    ByteBuffer buffer = ByteBuffer.wrap(journal);
+    int offset = MAGIC_BYTES;
+    while (offset < journal.length) {
+      offsets.add(offset);
+      offset += HEADER_BYTES + buffer.getInt(offset);
+    }
+    offsets.add(offset);
+    return offsets;
+  }
+
+  private static ForecastEntry entry(String city, int temperature) {
+    Instant fetchedAt = FETCHED_AT.plusSeconds(temperature);
+    byte[] json = ("[{\"city\":\"" + city + "\",\"temperature\":" + temperature + "}]")
+        .getBytes(StandardCharsets.UTF_8);
+    ForecastPoint period = new ForecastPoint(fetchedAt.getEpochSecond(), temperature,
+        temperature - 1, temperature - 2, temperature + 2, 1013, 60, 10000, 3.5, 5, 180,
+        List.of(new Weather("Clear", "clear sky", "01d")));
+    return new ForecastEntry(List.of(), List.of(period), json, Arrays.copyOf(json, 8),
+        city + "-" + temperature, fetchedAt, fetchedAt, fetchedAt.plus(TTL), false, 0);
+  }
+}
@@ -0,0 +1,179 @@
+package com.weather.api.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.weather.api.cache.shared.InMemorySharedStore;
+import com.weather.api.cache.shared.Invalidation;
+import com.weather.api.cache.shared.SharedStore;
+import com.weather.api.metrics.ForecastMetrics;
+import com.weather.api.model.Forecast;
+import com.weather.api.model.ForecastData;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * Два вузли — два {@link ForecastCache} зі спільним {@link InMemorySharedStore}: оренда ключа,
+ * очікування опублікованої версії та повідомлення про нові версії
+ */
+class SharedForecastCacheTest {
+
+  private static final String KEY = "kyiv";
+
+  private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+      .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+      .build();
+  private final SharedStore store = new InMemorySharedStore();
+  private final ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+  private final MeterRegistry firstRegistry = new SimpleMeterRegistry();
+  private final MeterRegistry secondRegistry = new SimpleMeterRegistry();
+  private final AtomicInteger firstLoads = new AtomicInteger();
+  private final AtomicInteger secondLoads = new AtomicInteger();
+
+  private ForecastData data;
+  private ForecastCache first;
+  private ForecastCache second;
+
+  @BeforeEach
+  void setUp() {
+    Forecast forecast = new Forecast();
+    forecast.setDate(LocalDate.of(2024, 5, 1));
+    forecast.setTemperature(12.5);
+    data = new ForecastData(List.of(forecast), List.of());
+    scheduler.initialize();
+    first = node(firstRegistry);
+    second = node(secondRegistry);
+  }
+
+  @AfterEach
+  void tearDown() {
+    scheduler.shutdown();
+  }
+
+  @Test
+  void onlyLeaseHolderLoadsAndWaiterGetsPublishedValue() throws Exception {
+    CountDownLatch loading = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    CompletableFuture<ForecastEntry> leaseHolder = CompletableFuture.supplyAsync(() ->
+        first.get(KEY, (key, background) -> {
+          firstLoads.incrementAndGet();
+          loading.countDown();
+          await(release);
+          return data;
+        }));
+    assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+    assertThat(store.isLeased(KEY)).isTrue();
+
+    CompletableFuture<ForecastEntry> waiter = CompletableFuture.supplyAsync(() ->
+        second.get(KEY, (key, background) -> {
+          secondLoads.incrementAndGet();
+          return data;
+        }));
+    // Другий вузол бачить зайняту оренду і чекає на нову версію
+    while (busyLeases(secondRegistry) == 0 && !waiter.isDone()) {
+      Thread.onSpinWait();
+    }
+    release.countDown();
+
+    ForecastEntry published = leaseHolder.get(5, TimeUnit.SECONDS);
+    ForecastEntry received = waiter.get(5, TimeUnit.SECONDS);
+    assertThat(firstLoads).hasValue(1);
+    assertThat(secondLoads).hasValue(0);
+    assertThat(busyLeases(secondRegistry)).isEqualTo(1);
+    assertThat(received.version()).isEqualTo(published.version()).isPositive();
+    assertThat(received.etag()).isEqualTo(published.etag());
+    assertThat(received.json()).isEqualTo(published.json());
+    assertThat(store.isLeased(KEY)).isFalse();
+  }
+
+  @Test
+  void newerVersionEvictsPeerEntry() {
+    ForecastEntry original = first.get(KEY, this::loadFirst);
+    assertThat(second.get(KEY, this::loadSecond).version()).isEqualTo(original.version());
+    assertThat(second.peek(KEY)).isNotNull();
+
+    first.refresh(KEY, this::loadFirst);
+
+    assertThat(firstLoads).hasValue(2);
+    assertThat(first.peek(KEY).version()).isGreaterThan(original.version());
+    assertThat(second.peek(KEY)).isNull();
+    assertThat(second.get(KEY, this::loadSecond).version()).isEqualTo(first.peek(KEY).version());
+    assertThat(secondLoads).hasValue(0);
+  }
+
+  @Test
+  void olderVersionDoesNotReplaceNewer() {
+    ForecastEntry original = first.get(KEY, this::loadFirst);
+    first.refresh(KEY, this::loadFirst);
+    long newest = first.peek(KEY).version();
+    ForecastEntry current = second.get(KEY, this::loadSecond);
+    assertThat(current.version()).isEqualTo(newest);
+
+    // Запізніле повідомлення про старішу версію не видаляє новішу
+    store.publish(new Invalidation(KEY, original.version(), "other-node"));
+    assertThat(second.peek(KEY)).isSameAs(current);
+    store.publish(new Invalidation(KEY, newest, "other-node"));
+    assertThat(second.peek(KEY)).isSameAs(current);
+
+    // Запис зі старішим часом отримання все одно отримує новішу версію
+    assertThat(store.put(KEY, new byte[0], original.version() - 1_000, Duration.ofMinutes(1)))
+        .isGreaterThan(newest);
+  }
+
+  @Test
+  void ownInvalidationDoesNotEvictOwnEntry() {
+    first.get(KEY, this::loadFirst);
+    first.refresh(KEY, this::loadFirst);
+
+    assertThat(first.peek(KEY)).isNotNull();
+    assertThat(firstLoads).hasValue(2);
+  }
+
+  private ForecastCache node(MeterRegistry registry) {
+    SharedForecasts shared = new SharedForecasts(
+        new StaticListableBeanFactory(Map.of("store", store)).getBeanProvider(SharedStore.class),
+        objectMapper, registry, Duration.ofSeconds(10), Duration.ofSeconds(5));
+    return new ForecastCache(Runnable::run, registry, objectMapper,
+        new ForecastSnapshotStore(objectMapper, false, Path.of("unused")), shared,
+        new ForecastMetrics(registry, 10), scheduler, 100, 100, Duration.ofMinutes(10),
+        Duration.ofMinutes(5), Duration.ofHours(1), Duration.ofSeconds(5), Duration.ofHours(1));
+  }
+
+  private ForecastData loadFirst(String key, boolean background) {
+    firstLoads.incrementAndGet();
+    return data;
+  }
+
+  private ForecastData loadSecond(String key, boolean background) {
+    secondLoads.incrementAndGet();
+    return data;
+  }
+
+  private static double busyLeases(MeterRegistry registry) {
+    return registry.get("forecast.cache.lease").tag("outcome", "busy").counter().count();
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,174 @@
+package com.weather.api.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.weather.api.cache.ForecastBody;
+import com.weather.api.cache.ForecastEntry;
+import com.weather.api.model.AggregationWindow;
+import com.weather.api.model.ForecastView;
+import com.weather.api.model.ResponseFormat;
+import com.weather.api.model.Units;
+import com.weather.api.service.contract.ForecastService;
+import com.weather.api.service.contract.RequestPriority;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+/**
+ * Вибір кодування відповіді за {@code Accept-Encoding}, умовні запити з ETag конкретного
+ * кодування та вибір формату за {@code Accept}
+ */
+class ForecastControllerTest {
+
+  private static final byte[] JSON = "[]".getBytes(StandardCharsets.UTF_8);
+  private static final byte[] GZIP = "gzip".getBytes(StandardCharsets.UTF_8);
+  private static final String ETAG = "abc";
+
+  private final MockMvc mvc = MockMvcBuilders
+      .standaloneSetup(new ForecastController(new FixedForecastService(entry()), null))
+      .build();
+
+  @ParameterizedTest
+  @ValueSource(strings = {"gzip", "GZIP", "gzip;q=0.5", "br, gzip ; q = 0.8", "*", "*;q=0.1",
+      "identity, *", "gzip;q=0.5, *;q=0"})
+  void gzipIsServedWhenAccepted(String acceptEncoding) throws Exception {
+    MockHttpServletResponse response = get(acceptEncoding);
+
+    assertThat(response.getStatus()).isEqualTo(200);
+    assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+    assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo("\"" + ETAG + "-gzip\"");
+    assertThat(response.getContentAsByteArray()).isEqualTo(GZIP);
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"", "identity", "br", "gzip;q=0", "gzip;q=0.0", "gzip;q=x", "gzip;q=",
+      "gzip;q=2", "gzip;q=-1", "*;q=0", "gzip;q=0, *", "*, gzip;q=0", "identity;q=1, *;q=0"})
+  void identityIsServedOtherwise(String acceptEncoding) throws Exception {
+    MockHttpServletResponse response = get(acceptEncoding);
+
+    assertThat(response.getStatus()).isEqualTo(200);
+    assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+    assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo("\"" + ETAG + "\"");
+    assertThat(response.getContentAsByteArray()).isEqualTo(JSON);
+  }
+
+  @Test
+  void identityIsServedWithoutAcceptEncoding() throws Exception {
+    MockHttpServletResponse response = perform(request());
+
+    assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+    assertThat(response.getContentAsByteArray()).isEqualTo(JSON);
+  }
+
+  @Test
+  void gzipEtagRevalidatesGzipResponse() throws Exception {
+    MockHttpServletResponse response = perform(request()
+        .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+        .header(HttpHeaders.IF_NONE_MATCH, "\"" + ETAG + "-gzip\""));
+
+    assertThat(response.getStatus()).isEqualTo(304);
+    assertThat(response.getContentAsByteArray()).isEmpty();
+  }
+
+  @Test
+  void identityEtagDoesNotRevalidateGzipResponse() throws Exception {
+    MockHttpServletResponse response = perform(request()
+        .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+        .header(HttpHeaders.IF_NONE_MATCH, "\"" + ETAG + "\""));
+
+    assertThat(response.getStatus()).isEqualTo(200);
+    assertThat(response.getContentAsByteArray()).isEqualTo(GZIP);
+  }
+
+  @Test
+  void gzipEtagDoesNotRevalidateIdentityResponse() throws Exception {
+    MockHttpServletResponse response = perform(request()
+        .header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0")
+        .header(HttpHeaders.IF_NONE_MATCH, "\"" + ETAG + "-gzip\""));
+
+    assertThat(response.getStatus()).isEqualTo(200);
+    assertThat(response.getContentAsByteArray()).isEqualTo(JSON);
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"application/cbor;q=0", "application/cbor;q=0, application/json",
+      "application/cbor;q=0, */*", "application/x-jackson-smile;q=0.0, application/cbor;q=0"})
+  void rejectedBinaryFormatFallsBackToJson(String accept) throws Exception {
+    MockHttpServletResponse response = perform(request().header(HttpHeaders.ACCEPT, accept));
+
+    assertThat(response.getStatus()).isEqualTo(200);
+    assertThat(response.getContentType()).isEqualTo(MediaType.APPLICATION_JSON_VALUE);
+  }
+
+  @Test
+  void acceptedBinaryFormatIsServed() throws Exception {
+    MockHttpServletResponse response = perform(request()
+        .header(HttpHeaders.ACCEPT, "application/json;q=0.5, application/cbor"));
+
+    assertThat(response.getStatus()).isEqualTo(200);
+    assertThat(response.getContentType()).isEqualTo(ResponseFormat.CBOR_VALUE);
+  }
+
+  private MockHttpServletResponse get(String acceptEncoding) throws Exception {
+    return perform(request().header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding));
+  }
+
+  private MockHttpServletResponse perform(MockHttpServletRequestBuilder request)
+      throws Exception {
+    return mvc.perform(request).andReturn().getResponse();
+  }
+
+  private static MockHttpServletRequestBuilder request() {
+    return MockMvcRequestBuilders.get("/api/v1/forecasts/{cityName}", "Kyiv");
+  }
+
+  private static ForecastEntry entry() {
+    Instant now = Instant.now();
+    return new ForecastEntry(List.of(), List.of(), JSON, GZIP, ETAG, now, now,
+        now.plus(Duration.ofHours(1)), false, 0);
+  }
+
+  private record FixedForecastService(ForecastEntry entry) implements ForecastService {
+
+    @Override
+    public ForecastEntry searchByCityName(String cityName) {
+      return entry;
+    }
+
+    @Override
+    public ForecastEntry searchByCityName(String cityName, RequestPriority priority) {
+      return entry;
+    }
+
+    @Override
+    public ForecastEntry searchByCoordinates(double lat, double lon) {
+      return entry;
+    }
+
+    @Override
+    public ForecastBody render(ForecastEntry entry, ForecastView view) {
+      return entry.body();
+    }
+
+    @Override
+    public void writeWindows(ForecastEntry entry, AggregationWindow window, Units units,
+        OutputStream out) {
+    }
+
+    @Override
+    public void refresh(String cityKey) {
+    }
+  }
+}
@@ -0,0 +1,86 @@
+package com.weather.api.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Обмеження кількості значень тегу {@code city}: місця отримують лише міста з отриманим
+ * прогнозом, і ліміт тримається при одночасних запитах нових міст
+ */
+class ForecastMetricsTest {
+
+  private static final int MAX_CITY_TAGS = 3;
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private final ForecastMetrics metrics = new ForecastMetrics(registry, MAX_CITY_TAGS);
+
+  @Test
+  void failedCitiesDoNotTakeTagSlots() {
+    for (int i = 0; i < 10; i++) {
+      metrics.cityRequested("unknown-" + i, false);
+    }
+    metrics.cityRequested("kyiv", true);
+    metrics.cityRequested("kyiv", false);
+    metrics.cityRequested("lviv", true);
+
+    assertThat(requests("kyiv")).isEqualTo(2);
+    assertThat(requests("lviv")).isEqualTo(1);
+    assertThat(requests("other")).isEqualTo(10);
+    assertThat(tags()).isEqualTo(3);
+  }
+
+  @Test
+  void citiesOverLimitAreCountedAsOther() {
+    metrics.cityRequested("kyiv", true);
+    metrics.cityRequested("lviv", true);
+    metrics.cityRequested("odesa", true);
+    metrics.cityRequested("dnipro", true);
+    metrics.cityRequested("kyiv", true);
+
+    assertThat(requests("kyiv")).isEqualTo(2);
+    assertThat(requests("other")).isEqualTo(1);
+    assertThat(registry.find("forecast.requests").tag("city", "dnipro").counter()).isNull();
+  }
+
+  @Test
+  void limitHoldsUnderConcurrentAdmission() throws Exception {
+    int cities = 200;
+    CountDownLatch start = new CountDownLatch(1);
+    try (ExecutorService executor = Executors.newFixedThreadPool(16)) {
+      for (int i = 0; i < cities; i++) {
+        String city = "city-" + i;
+        executor.execute(() -> {
+          try {
+            start.await(5, TimeUnit.SECONDS);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          metrics.cityRequested(city, true);
+        });
+      }
+      start.countDown();
+    }
+
+    // Власні теги та other
+    assertThat(tags()).isEqualTo(MAX_CITY_TAGS + 1);
+    double total = registry.find("forecast.requests").counters().stream()
+        .mapToDouble(Counter::count)
+        .sum();
+    assertThat(total).isEqualTo(cities);
+  }
+
+  private double requests(String city) {
+    return registry.get("forecast.requests").tag("city", city).counter().count();
+  }
+
+  private int tags() {
+    return registry.find("forecast.requests").counters().size();
+  }
+}
@@ -0,0 +1,58 @@
+package com.weather.api.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.weather.api.model.CityInfo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.core.io.ClassPathResource;
+
+/**
+ * Нормалізація назв: кириличний і латинський варіанти міста дають один ключ, а отже один запис
+ * кешу та один виклик зовнішнього API
+ */
+class CityServiceImplTest {
+
+  private final CityServiceImpl cityService = new CityServiceImpl(new ObjectMapper(),
+      new SimpleMeterRegistry(), new ClassPathResource("cities/city.list.json"), true, 100,
+      Duration.ofHours(1));
+
+  @ParameterizedTest
+  @CsvSource({
+      "Хмельницький, Khmelnytskyi",
+      "Кривий Ріг, Kryvyi Rih",
+      "Кропивницький, Kropyvnytskyi",
+      "ХМЕЛЬНИЦЬКИЙ, khmelnytskyi",
+      "Київ, Kyiv",
+      "Запоріжжя, Zaporizhzhia",
+      "Миколаїв, Mykolaiv",
+      "Івано-Франківськ, Ivano-Frankivsk",
+  })
+  void cyrillicAndLatinNamesShareKey(String cyrillic, String latin) {
+    assertThat(CityServiceImpl.normalize(cyrillic)).isEqualTo(CityServiceImpl.normalize(latin));
+  }
+
+  @ParameterizedTest
+  @CsvSource({
+      "Хмельницький, Khmelnytskyi",
+      "Київ, Kyiv",
+      "Миколаїв, Mykolaiv",
+      "Ужгород, Uzhhorod",
+  })
+  void cyrillicNameResolvesToDirectoryCity(String cyrillic, String latin) {
+    CityInfo expected = cityService.resolve(latin).orElseThrow();
+
+    assertThat(cityService.resolve(cyrillic)).contains(expected);
+    assertThat(cityService.isRejected(cyrillic)).isFalse();
+  }
+
+  @Test
+  void latinDiacriticsAreRemoved() {
+    assertThat(CityServiceImpl.normalize("Chişinău")).isEqualTo("chisinau");
+    assertThat(CityServiceImpl.normalize("Zürich")).isEqualTo("zurich");
+  }
+}
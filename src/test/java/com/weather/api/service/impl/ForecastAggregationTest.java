@@ -0,0 +1,66 @@
+package com.weather.api.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.weather.api.model.ForecastData;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.skyscreamer.jsonassert.JSONAssert;
+import org.skyscreamer.jsonassert.JSONCompareMode;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Розбір і агрегація відповідей {@code /data/2.5/forecast} з {@code src/jmh/resources/fixtures}
+ * обома шляхами — {@link ForecastStreamParser} та {@link ForecastTreeMapper}. Результат
+ * порівнюється з очікуваним JSON у {@code expected/}, тож обидва режими дають ідентичний і
+ * незмінний прогноз. Дні рахуються в UTC, див. {@code argLine} у {@code pom.xml}
+ */
+class ForecastAggregationTest {
+
+  private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+      .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+      .build();
+
+  @ParameterizedTest
+  @ValueSource(strings = {"small", "typical", "worst"})
+  void streamingParserMatchesExpected(String payload) throws Exception {
+    ForecastData data;
+    try (InputStream body = resource("/fixtures/forecast-" + payload + ".json")) {
+      data = new ForecastStreamParser(objectMapper.getFactory()).parse(body);
+    }
+
+    JSONAssert.assertEquals(expected(payload), json(data), JSONCompareMode.STRICT);
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"small", "typical", "worst"})
+  void treeMapperMatchesExpected(String payload) throws Exception {
+    ForecastData data;
+    try (InputStream body = resource("/fixtures/forecast-" + payload + ".json")) {
+      data = new ForecastTreeMapper().map(objectMapper.readTree(body));
+    }
+
+    JSONAssert.assertEquals(expected(payload), json(data), JSONCompareMode.STRICT);
+  }
+
+  private String json(ForecastData data) throws IOException {
+    return objectMapper.writeValueAsString(data);
+  }
+
+  private String expected(String payload) throws IOException {
+    try (InputStream in = resource("/expected/forecast-" + payload + ".json")) {
+      return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+    }
+  }
+
+  private InputStream resource(String name) {
+    InputStream in = getClass().getResourceAsStream(name);
+    assertThat(in).as(name).isNotNull();
+    return in;
+  }
+}
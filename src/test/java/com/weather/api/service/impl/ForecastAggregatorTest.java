@@ -0,0 +1,163 @@
+package com.weather.api.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.weather.api.model.City;
+import com.weather.api.model.Forecast;
+import com.weather.api.model.ForecastData;
+import com.weather.api.model.Weather;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+/**
+ * Агрегація днів на значеннях, порахованих вручну: округлення на межі {@code .xx5}, середні по
+ * обидва боки межі доби, круговий середній напрямок вітру та дні з одним періодом або без
+ * періодів. Дні рахуються в UTC, див. {@code argLine} у {@code pom.xml}
+ */
+class ForecastAggregatorTest {
+
+  private static final City CITY = new City("Kyiv", "UA", null, null, null, null);
+  private static final Weather RAIN = new Weather("Rain", "light rain", "10d");
+  private static final Weather CLEAR = new Weather("Clear", "clear sky", "01n");
+  private static final Weather CLOUDS = new Weather("Clouds", "few clouds", "02n");
+
+  @ParameterizedTest
+  @CsvSource({
+      "1.005, 1.01",
+      "1.015, 1.02",
+      "2.675, 2.68",
+      "8.345, 8.35",
+      "0.285, 0.29",
+      "0.125, 0.13",
+      "1.0049, 1.0",
+      "1.004999, 1.0",
+      "-1.005, -1.01",
+      "-2.675, -2.68",
+      "10.0, 10.0",
+      "0.0, 0.0",
+  })
+  void round2RoundsHalfUp(double value, double expected) {
+    assertThat(WindowAccumulator.round2(value)).isEqualTo(expected);
+  }
+
+  @Test
+  void averagesArePerDayAcrossMidnight() {
+    ForecastAggregator aggregator = new ForecastAggregator();
+    aggregator.add(period("2024-05-01T18:00:00Z", 10, 8, 9, 11, 1010, 60, 10000, 2, 4, 350, RAIN));
+    aggregator.add(period("2024-05-01T21:00:00Z", 13, 11, 12.5, 14, 1013, 71, 8000, 3, 5, 10,
+        RAIN));
+    aggregator.add(period("2024-05-02T00:00:00Z", 5, 3, 4, 6, 1000, 80, 9000, 1, 2, 90, CLEAR));
+    aggregator.add(period("2024-05-02T03:00:00Z", 6.01, 4, 5, 7, 1001, 81, 7000, 2, 3, 180,
+        CLOUDS));
+
+    ForecastData data = aggregator.finish(CITY);
+
+    assertThat(data.periods()).hasSize(4);
+    assertThat(data.forecasts()).hasSize(2);
+
+    Forecast first = data.forecasts().get(0);
+    assertThat(first.getDate()).isEqualTo(LocalDate.of(2024, 5, 1));
+    assertThat(first.getTemperature()).isEqualTo(11.5);
+    assertThat(first.getFeelsLike()).isEqualTo(9.5);
+    assertThat(first.getMinTemperature()).isEqualTo(9.0);
+    assertThat(first.getMaxTemperature()).isEqualTo(14.0);
+    assertThat(first.getPressure()).isEqualTo(1011.5);
+    assertThat(first.getHumidity()).isEqualTo(65.5);
+    assertThat(first.getVisibility()).isEqualTo(9000.0);
+    assertThat(first.getWind().getSpeed()).isEqualTo(2.5);
+    assertThat(first.getWind().getGust()).isEqualTo(4.5);
+    assertThat(first.getWind().getDeg()).isEqualTo(0.0);
+    assertThat(first.getWeather()).isEqualTo(RAIN);
+    assertThat(first.getCity()).isEqualTo(CITY);
+
+    Forecast second = data.forecasts().get(1);
+    assertThat(second.getDate()).isEqualTo(LocalDate.of(2024, 5, 2));
+    // (5 + 6.01) / 2 = 5.505
+    assertThat(second.getTemperature()).isEqualTo(5.51);
+    assertThat(second.getFeelsLike()).isEqualTo(3.5);
+    assertThat(second.getMinTemperature()).isEqualTo(4.0);
+    assertThat(second.getMaxTemperature()).isEqualTo(7.0);
+    assertThat(second.getPressure()).isEqualTo(1000.5);
+    assertThat(second.getHumidity()).isEqualTo(80.5);
+    assertThat(second.getVisibility()).isEqualTo(8000.0);
+    assertThat(second.getWind().getDeg()).isEqualTo(135.0);
+    // Нічия між станами погоди — перемагає той, що трапився раніше
+    assertThat(second.getWeather()).isEqualTo(CLEAR);
+  }
+
+  @ParameterizedTest
+  @CsvSource({
+      "350, 10, 0.0",
+      "355, 5, 0.0",
+      "359, 1, 0.0",
+      "340, 10, 355.0",
+      "350, 20, 5.0",
+      "10, 350, 0.0",
+      "0, 0, 0.0",
+      "270, 0, 315.0",
+  })
+  void windDirectionIsCircularMean(double first, double second, double expected) {
+    ForecastAggregator aggregator = new ForecastAggregator();
+    aggregator.add(period("2024-05-01T00:00:00Z", first));
+    aggregator.add(period("2024-05-01T03:00:00Z", second));
+
+    assertThat(aggregator.finish(CITY).forecasts())
+        .singleElement()
+        .satisfies(day -> assertThat(day.getWind().getDeg()).isEqualTo(expected));
+  }
+
+  @Test
+  void singlePeriodDayKeepsItsValues() {
+    ForecastAggregator aggregator = new ForecastAggregator();
+    aggregator.add(period("2024-05-01T21:00:00Z", 7.125, 5.5, 6.5, 8, 1015, 55, 10000, 4.333, 6,
+        215.5, CLOUDS));
+
+    ForecastData data = aggregator.finish(CITY);
+
+    assertThat(data.forecasts()).singleElement().satisfies(day -> {
+      assertThat(day.getDate()).isEqualTo(LocalDate.of(2024, 5, 1));
+      assertThat(day.getTemperature()).isEqualTo(7.13);
+      assertThat(day.getFeelsLike()).isEqualTo(5.5);
+      assertThat(day.getMinTemperature()).isEqualTo(6.5);
+      assertThat(day.getMaxTemperature()).isEqualTo(8.0);
+      assertThat(day.getWind().getSpeed()).isEqualTo(4.33);
+      assertThat(day.getWind().getDeg()).isEqualTo(215.5);
+      assertThat(day.getWeather()).isEqualTo(CLOUDS);
+    });
+  }
+
+  @Test
+  void noPeriodsGiveNoDays() {
+    ForecastData data = new ForecastAggregator().finish(CITY);
+
+    assertThat(data.forecasts()).isEmpty();
+    assertThat(data.periods()).isEmpty();
+  }
+
+  private static ForecastPeriod period(String time, double windDeg) {
+    return period(time, 10, 10, 10, 10, 1000, 50, 10000, 1, 1, windDeg, CLEAR);
+  }
+
+  private static ForecastPeriod period(String time, double temperature, double feelsLike,
+      double minTemperature, double maxTemperature, double pressure, double humidity,
+      double visibility, double windSpeed, double windGust, double windDeg, Weather weather) {
+    ForecastPeriod period = new ForecastPeriod();
+    period.dt = Instant.parse(time).getEpochSecond();
+    period.temperature = temperature;
+    period.feelsLike = feelsLike;
+    period.minTemperature = minTemperature;
+    period.maxTemperature = maxTemperature;
+    period.pressure = pressure;
+    period.humidity = humidity;
+    period.visibility = visibility;
+    period.windSpeed = windSpeed;
+    period.windGust = windGust;
+    period.windDeg = windDeg;
+    period.weathers.add(weather);
+    return period;
+  }
+}
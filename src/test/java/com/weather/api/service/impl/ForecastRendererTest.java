@@ -0,0 +1,93 @@
+package com.weather.api.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.weather.api.exception.BadRequestException;
+import com.weather.api.model.City;
+import com.weather.api.model.Forecast;
+import com.weather.api.model.ForecastView;
+import com.weather.api.model.ResponseFormat;
+import com.weather.api.model.Units;
+import com.weather.api.model.Wind;
+import com.weather.api.shared.exception.ResourceStatus;
+import java.time.LocalDate;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Перевірка {@code fields} та вибір полів: у ключ представлення потрапляють лише відомі кінцеві
+ * шляхи, а відсутні чи {@code null} батьківські об'єкти не ламають відповідь
+ */
+class ForecastRendererTest {
+
+  private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+      .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+      .build();
+  private final ForecastRenderer renderer = new ForecastRenderer(objectMapper);
+
+  @ParameterizedTest
+  @ValueSource(strings = {"wind", "weather", "city", "wind.foo", "wind.", ".speed",
+      "wind.speed.value", "foo", "date.year", "Wind.speed", "wind.speed\""})
+  void unknownOrPartialPathIsBadRequest(String field) {
+    BadRequestException e = catchThrowableOfType(
+        () -> ForecastRenderer.validate(view(field)), BadRequestException.class);
+
+    assertThat(e).isNotNull();
+    assertThat(ResourceStatus.of(e).code()).isEqualTo(400);
+  }
+
+  @Test
+  void knownLeafPathsAreAccepted() {
+    assertThatCode(() -> ForecastRenderer.validate(
+        view("date,temperature,wind.speed,wind.deg,weather.icon,city.name,city.sunrise")))
+        .doesNotThrowAnyException();
+  }
+
+  @Test
+  void projectsNestedFields() throws Exception {
+    JsonNode days = render(forecast(city()), view("date,wind.speed,city.name"));
+
+    assertThat(days.get(0)).isEqualTo(objectMapper.readTree(
+        "{\"date\":\"2024-05-01\",\"wind\":{\"speed\":3.5},\"city\":{\"name\":\"Kyiv\"}}"));
+  }
+
+  @Test
+  void nullParentIsSkipped() throws Exception {
+    JsonNode days = render(forecast(null), view("city.name,city.country,date"));
+
+    assertThat(days.get(0)).isEqualTo(objectMapper.readTree("{\"date\":\"2024-05-01\"}"));
+  }
+
+  private JsonNode render(Forecast forecast, ForecastView view) throws Exception {
+    return objectMapper.readTree(renderer.render(List.of(forecast), view));
+  }
+
+  private static ForecastView view(String fields) {
+    return new ForecastView(Units.METRIC, ResponseFormat.JSON, ForecastView.parseFields(fields),
+        false);
+  }
+
+  private static Forecast forecast(City city) {
+    Wind wind = new Wind();
+    wind.setSpeed(3.5);
+    wind.setDeg(180.0);
+    Forecast forecast = new Forecast();
+    forecast.setDate(LocalDate.of(2024, 5, 1));
+    forecast.setTemperature(12.0);
+    forecast.setWind(wind);
+    forecast.setCity(city);
+    return forecast;
+  }
+
+  private static City city() {
+    return new City("Kyiv", "UA", null, null, null, null);
+  }
+}
@@ -0,0 +1,82 @@
+package com.weather.api.shared.exception;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.weather.api.shared.model.ErrorResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Готове тіло помилки збігається байт у байт з {@link ErrorResponse}, серіалізованим Jackson з
+ * налаштуваннями Spring Boot, — для різної точності та зсуву часу, екранування та деталей
+ */
+class ErrorBodiesTest {
+
+  private static final OffsetDateTime TIMESTAMP =
+      OffsetDateTime.parse("2024-05-01T12:30:45.123Z");
+
+  private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+      .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+      .build();
+  private final ErrorBodies bodies = new ErrorBodies(objectMapper);
+
+  @ParameterizedTest
+  @ValueSource(strings = {"2024-05-01T12:30:45Z", "2024-05-01T12:30:45.100Z",
+      "2024-05-01T12:30:45.120Z", "2024-05-01T12:30:45.123456Z", "2024-05-01T12:30:45.000001Z",
+      "2024-05-01T12:30:45.123456789Z", "2024-05-01T00:00:00Z", "2024-05-01T15:30:45.5+03:00",
+      "2024-05-01T07:00:00.25-05:30"})
+  void timestampMatchesOffsetDateTimeSerialization(String timestamp) throws Exception {
+    assertMatches(OffsetDateTime.parse(timestamp), 503, "Service Unavailable",
+        "Сервіс прогнозів тимчасово недоступний", "/api/v1/forecasts/Kyiv", null);
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"Місто не знайдено: Kyivv", "quote \" and \\ backslash",
+      "line\nbreak\ttab", "control \u0001 \u001f", "slash / <script>", "emoji 🌤",
+      ""})
+  void messageIsEscapedLikeJackson(String message) throws Exception {
+    assertMatches(TIMESTAMP, 404, "Not Found", message, "/api/v1/forecasts/" + message, null);
+  }
+
+  @Test
+  void detailsAreSerializedPerRequest() throws Exception {
+    assertMatches(TIMESTAMP, 404, "Not Found", "Місто не знайдено: Kyivv",
+        "/api/v1/forecasts/Kyivv", Map.of("suggestions", List.of("Kyiv,UA", "Kyiv,US")));
+    assertMatches(TIMESTAMP, 404, "Not Found", "Місто не знайдено: Lvov",
+        "/api/v1/forecasts/Lvov", Map.of("suggestions", List.of("Lviv,UA")));
+  }
+
+  @Test
+  void nullMessageAndPathAreWrittenAsNull() throws Exception {
+    assertMatches(TIMESTAMP, 500, "Internal Server Error", null, null, null);
+  }
+
+  @Test
+  void sameStatusWithDifferentMessagesSharesTemplate() throws Exception {
+    for (int i = 0; i < 50; i++) {
+      assertMatches(TIMESTAMP, 404, "Not Found", "Місто не знайдено: city-" + i,
+          "/api/v1/forecasts/city-" + i, null);
+    }
+    assertMatches(TIMESTAMP, 400, "Bad Request", "Невідоме поле: wind", "/api/v1/forecasts/Kyiv",
+        null);
+  }
+
+  private void assertMatches(OffsetDateTime timestamp, int status, String error, String message,
+      String path, Object details) throws Exception {
+    String expected = objectMapper.writeValueAsString(
+        new ErrorResponse(timestamp, status, error, message, path, details));
+
+    String body = new String(bodies.render(timestamp, status, error, message, path, details),
+        StandardCharsets.UTF_8);
+
+    assertThat(body).isEqualTo(expected);
+  }
+}